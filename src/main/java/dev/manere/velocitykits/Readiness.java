@@ -0,0 +1,105 @@
+package dev.manere.velocitykits;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * Loads the storage in the background while the server starts, and gates everything that needs it until it is done.
+ * <p>
+ * Commands check {@link #check(CommandSender)} first and reply that kits are loading until then.
+ * Each phase is timed and the timings are logged once the plugin is ready.
+ */
+public class Readiness {
+    /* Completes on the startup thread once every phase ran, so shutdown can wait for it without needing the main thread. */
+    private static final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private static volatile boolean ready;
+
+    /**
+     * @param name   Used in the startup log.
+     * @param action Runs off the main thread.
+     */
+    public record Phase(String name, Runnable action) {
+
+    }
+
+    /**
+     * Runs the phases in order on a startup thread, then {@code onReady} on the main thread.
+     * If a phase fails the plugin is disabled, like a failing {@code onEnable} would.
+     */
+    public static void start(List<Phase> phases, Runnable onReady) {
+        Thread thread = new Thread(() -> {
+            long started = System.nanoTime();
+            StringJoiner timings = new StringJoiner(", ");
+
+            for (Phase phase : phases) {
+                long start = System.nanoTime();
+
+                try {
+                    phase.action().run();
+                } catch (Throwable throwable) {
+                    Utils.plugin().getLogger().log(Level.SEVERE, "Failed to load " + phase.name() + ", disabling VelocityKits", throwable);
+                    loaded.completeExceptionally(throwable);
+                    PluginExecutors.sync().execute(() -> Bukkit.getPluginManager().disablePlugin(Utils.plugin()));
+                    return;
+                }
+
+                timings.add(phase.name() + " " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+            }
+
+            loaded.complete(null);
+
+            PluginExecutors.sync().execute(() -> {
+                onReady.run();
+                ready = true;
+
+                Utils.plugin().getLogger().info("Ready after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+                        + "ms (" + timings + ")");
+            });
+        }, "VelocityKits Startup");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static boolean ready() {
+        return ready;
+    }
+
+    /**
+     * @return Whether the plugin is ready, if not the sender is told to wait.
+     */
+    public static boolean check(CommandSender sender) {
+        if (ready()) return true;
+
+        sender.sendMessage(TextStyle.color("<#ff0000>Kits are still loading, please try again in a moment."));
+        return false;
+    }
+
+    /**
+     * Waits for a startup that is still running, so shutting down never races it.
+     *
+     * @return Whether every phase finished in time.
+     */
+    public static boolean await(long timeout, TimeUnit unit) {
+        try {
+            loaded.get(timeout, unit);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        }
+    }
+}
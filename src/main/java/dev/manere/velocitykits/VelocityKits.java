@@ -1,12 +1,25 @@
 package dev.manere.velocitykits;
 
 import dev.manere.utils.library.Utils;
+import dev.manere.utils.registration.Registrar;
+import dev.manere.velocitykits.broadcast.KitLoadBroadcaster;
 import dev.manere.velocitykits.cmd.*;
+import dev.manere.velocitykits.limit.RateLimiter;
+import dev.manere.velocitykits.location.PlayerGrid;
+import dev.manere.velocitykits.metrics.Metrics;
+import dev.manere.velocitykits.storage.IOGuard;
 import dev.manere.velocitykits.storage.kit.Kit;
+import dev.manere.velocitykits.storage.kit.KitCache;
+import dev.manere.velocitykits.storage.kit.KitHandoff;
+import dev.manere.velocitykits.storage.kit.KitSlots;
+import dev.manere.velocitykits.storage.player.PlayerDirectory;
 import dev.manere.velocitykits.storage.premade.PremadeKit;
 import dev.manere.velocitykits.storage.room.KitRoom;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 public final class VelocityKits extends JavaPlugin {
     @SuppressWarnings("DataFlowIssue") // In my case why would my getCommand method null...?
     @Override
@@ -18,28 +31,55 @@ public final class VelocityKits extends JavaPlugin {
         getCommand("kitroomadmin").setExecutor(new KitRoomAdminCommand());
         getCommand("premadekit").setExecutor(new PremadeKitCommand());
         getCommand("deletekit").setExecutor(new DeleteKitCommand());
-
-        getCommand("kit1").setExecutor(new KitLoadCommand());
-        getCommand("kit2").setExecutor(new KitLoadCommand());
-        getCommand("kit3").setExecutor(new KitLoadCommand());
-        getCommand("kit4").setExecutor(new KitLoadCommand());
-        getCommand("kit5").setExecutor(new KitLoadCommand());
-        getCommand("kit6").setExecutor(new KitLoadCommand());
-        getCommand("kit7").setExecutor(new KitLoadCommand());
-        getCommand("kit8").setExecutor(new KitLoadCommand());
+        getCommand("kitsearch").setExecutor(new KitSearchCommand());
+        getCommand("velocitykits").setExecutor(new VelocityKitsCommand());
 
         saveDefaultConfig();
         saveConfig();
 
-        KitRoom.of();
-        PremadeKit.of();
-        Kit.initialize(this);
+        IOGuard.of();
+        KitSlots.of();
+        RateLimiter.of();
+        Metrics.of();
+        getServer().getCommandMap().register(getName().toLowerCase(), new KitLoadCommand());
+
+        PlayerGrid.of(getServer());
+        KitLoadBroadcaster.of();
+
+        Registrar.events(new PlayerGrid());
+        Registrar.events(new RateLimiter());
+
+        // The server doesn't wait for our files and database, commands say kits are loading until this is done.
+        Readiness.start(List.of(
+                new Readiness.Phase("kit room", KitRoom::of),
+                new Readiness.Phase("premade kits", PremadeKit::of),
+                new Readiness.Phase("kit storage", Kit::of),
+                new Readiness.Phase("player directory", PlayerDirectory::of)
+        ), () -> {
+            KitHandoff.of();
+
+            Registrar.events(new KitCache());
+            Registrar.events(new KitHandoff());
+            Registrar.events(new PlayerDirectory());
+
+            // Joined while loading, e.g. after a reload.
+            getServer().getOnlinePlayers().forEach(player -> KitCache.join(player.getUniqueId().toString()));
+        });
     }
 
     @Override
     public void onDisable() {
+        Metrics.close();
+
+        if (!Readiness.await(30, TimeUnit.SECONDS)) {
+            getLogger().warning("Startup did not finish, skipping saving kit room and premade kits.");
+            Kit.close();
+            return;
+        }
+
         KitRoom.save();
         PremadeKit.save();
+        KitHandoff.close();
         Kit.close();
     }
 }
@@ -0,0 +1,185 @@
+package dev.manere.velocitykits.bench;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.serializers.Serializers;
+import dev.manere.velocitykits.menu.KitRoomMenu;
+import dev.manere.velocitykits.menu.MainMenu;
+import dev.manere.velocitykits.metrics.LatencyHistogram;
+import dev.manere.velocitykits.storage.kit.KitSlots;
+import dev.manere.velocitykits.storage.room.KitRoomCategory;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionData;
+import org.bukkit.potion.PotionType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Benchmarks of the kit hot paths that need the server's registries, item serialization and menus, so they run inside the server.
+ * Results are written as CSV to {@code benchmarks/} in the data folder, one file per run, so runs of different releases can be compared.
+ * <p>
+ * Storage and lane benchmarks don't need a server and run with the tests, see {@code StorageBenchmarkTest} in {@code src/test}.
+ */
+public class KitBenchmarks {
+    /**
+     * @param name  What was measured.
+     * @param param The parameter of this run, like the kit size.
+     */
+    public record Result(String name, String param, long ops, double meanMicros, long p50Micros, long p99Micros) {
+
+    }
+
+    /**
+     * Synthetic players live in their own UUID range so they can't collide with real ones.
+     */
+    private static final long SYNTHETIC_UUID_PREFIX = 0xBE7C_0000_0000_0000L;
+
+    public static String syntheticUUID(int index) {
+        return new UUID(SYNTHETIC_UUID_PREFIX, index).toString();
+    }
+
+    /**
+     * @return A typical crystal PvP kit: enchanted netherite gear, totems, crystals, obsidian, potions and food.
+     */
+    public static Map<Integer, ItemStack> pvpKit() {
+        Map<Integer, ItemStack> kit = new HashMap<>();
+
+        kit.put(0, enchanted(Material.NETHERITE_SWORD, Enchantment.DAMAGE_ALL, 5, Enchantment.SWEEPING_EDGE, 3, Enchantment.FIRE_ASPECT, 2));
+        kit.put(1, new ItemStack(Material.END_CRYSTAL, 64));
+        kit.put(2, new ItemStack(Material.OBSIDIAN, 64));
+        kit.put(3, new ItemStack(Material.RESPAWN_ANCHOR, 64));
+        kit.put(4, new ItemStack(Material.GLOWSTONE, 64));
+        kit.put(5, new ItemStack(Material.TOTEM_OF_UNDYING));
+        kit.put(6, new ItemStack(Material.ENCHANTED_GOLDEN_APPLE, 64));
+        kit.put(7, enchanted(Material.NETHERITE_PICKAXE, Enchantment.DIG_SPEED, 5, Enchantment.DURABILITY, 3, Enchantment.MENDING, 1));
+        kit.put(8, new ItemStack(Material.EXPERIENCE_BOTTLE, 64));
+
+        for (int slot = 9; slot < 27; slot++) {
+            kit.put(slot, new ItemStack(Material.TOTEM_OF_UNDYING));
+        }
+
+        for (int slot = 27; slot < 36; slot++) {
+            kit.put(slot, potion(slot % 2 == 0 ? PotionType.INSTANT_HEAL : PotionType.STRENGTH));
+        }
+
+        kit.put(36, enchanted(Material.NETHERITE_BOOTS, Enchantment.PROTECTION_ENVIRONMENTAL, 4, Enchantment.DURABILITY, 3, Enchantment.MENDING, 1));
+        kit.put(37, enchanted(Material.NETHERITE_LEGGINGS, Enchantment.PROTECTION_EXPLOSIONS, 4, Enchantment.DURABILITY, 3, Enchantment.MENDING, 1));
+        kit.put(38, enchanted(Material.NETHERITE_CHESTPLATE, Enchantment.PROTECTION_ENVIRONMENTAL, 4, Enchantment.DURABILITY, 3, Enchantment.MENDING, 1));
+        kit.put(39, enchanted(Material.NETHERITE_HELMET, Enchantment.PROTECTION_ENVIRONMENTAL, 4, Enchantment.DURABILITY, 3, Enchantment.MENDING, 1));
+        kit.put(40, new ItemStack(Material.TOTEM_OF_UNDYING));
+
+        return kit;
+    }
+
+    private static ItemStack enchanted(Material material, Object... enchantments) {
+        ItemStack item = new ItemStack(material);
+
+        for (int i = 0; i < enchantments.length; i += 2) {
+            item.addUnsafeEnchantment((Enchantment) enchantments[i], (int) enchantments[i + 1]);
+        }
+
+        return item;
+    }
+
+    private static ItemStack potion(PotionType type) {
+        ItemStack item = new ItemStack(Material.SPLASH_POTION);
+
+        if (item.getItemMeta() instanceof PotionMeta meta) {
+            meta.setBasePotionData(new PotionData(type, false, type.isUpgradeable()));
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+
+    /**
+     * Encoding and decoding a kit in its stored form. Safe to run off the main thread.
+     */
+    public static List<Result> codec(int iterations) {
+        Map<Integer, ItemStack> kit = pvpKit();
+        String encoded = Serializers.base64().serializeItemStacks(kit);
+        String param = "pvp-kit/" + encoded.length() + "b";
+        int warmup = warmup(iterations);
+
+        return List.of(
+                run("codec.encode", param, warmup, iterations, () -> Serializers.base64().serializeItemStacks(kit)),
+                run("codec.decode", param, warmup, iterations, () -> Serializers.base64().deserializeItemStackMap(encoded))
+        );
+    }
+
+    /**
+     * Building the menus players open most. Must run on the main thread.
+     */
+    public static List<Result> menus(Player player, int iterations) {
+        List<Result> results = new ArrayList<>();
+        int warmup = warmup(iterations);
+
+        if (player != null) {
+            results.add(run("menu.main", KitSlots.count(player) + "-kits", warmup, iterations, () -> new MainMenu(player)));
+        }
+
+        for (KitRoomCategory category : KitRoomCategory.values()) {
+            results.add(run("menu.kit-room", category.name().toLowerCase(), warmup, iterations, () -> new KitRoomMenu(category)));
+        }
+
+        return results;
+    }
+
+    /**
+     * Runs the operation for the warmup iterations, then times every measured iteration on its own.
+     * Percentiles are as precise as the {@link LatencyHistogram} buckets, like everywhere else in {@code /velocitykits stats}.
+     */
+    private static Result run(String name, String param, int warmup, int iterations, Runnable op) {
+        for (int i = 0; i < warmup; i++) {
+            op.run();
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            op.run();
+            histogram.record(System.nanoTime() - start);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        return new Result(name, param, snapshot.count(), snapshot.meanMicros(), snapshot.percentileMicros(0.50), snapshot.percentileMicros(0.99));
+    }
+
+    /**
+     * @return The file the results were written to.
+     */
+    public static Path write(List<Result> results) throws IOException {
+        Path directory = Utils.plugin().getDataFolder().toPath().resolve("benchmarks");
+        Files.createDirectories(directory);
+
+        Path file = directory.resolve("bench-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# VelocityKits " + Utils.plugin().getDescription().getVersion()
+                + ", " + Bukkit.getVersion()
+                + ", Java " + System.getProperty("java.version"));
+        lines.add("benchmark,param,ops,mean_us,p50_us,p99_us");
+
+        for (Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.2f,%d,%d",
+                    result.name(), result.param(), result.ops(), result.meanMicros(), result.p50Micros(), result.p99Micros()));
+        }
+
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static int warmup(int iterations) {
+        return Math.max(1, iterations / 5);
+    }
+}
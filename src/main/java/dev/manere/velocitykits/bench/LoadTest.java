@@ -0,0 +1,407 @@
+package dev.manere.velocitykits.bench;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.serializers.Serializers;
+import dev.manere.velocitykits.menu.KitRoomMenu;
+import dev.manere.velocitykits.metrics.LatencyHistogram;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import dev.manere.velocitykits.storage.kit.*;
+import dev.manere.velocitykits.storage.room.KitRoomCategory;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulated player sessions driven through the kit pipeline, to see how the server copes with a crowd before it has one.
+ * <p>
+ * Every session joins, then keeps loading a kit, browsing the kit room and editing and saving a kit, with a think time
+ * in between, until the test ends and it quits, deleting its kits. Storage work and item encoding run on the players'
+ * lanes and inventory and menu work on the main thread, like for real players.
+ * <p>
+ * Sessions never touch the data of real players. They run against a scratch store of the chosen backend: a YAML file
+ * that is deleted afterwards, or the MySQL database named by {@code loadtest.database} on the servers configured under
+ * {@code sql}, shards and replicas included. The cache, change feed and history are left alone too.
+ * <p>
+ * It runs inside the server rather than with the tests, since the main thread time per tick, item encoding and
+ * the MySQL backend all need a running server.
+ */
+public class LoadTest {
+    private static final int KITS_PER_SESSION = 3;
+    private static final long MIN_THINK_MILLIS = 250;
+    private static final long MAX_THINK_MILLIS = 1000;
+
+    /* Keeps sessions apart from the players of the storage benchmarks. */
+    private static final int FIRST_SESSION = 1 << 24;
+
+    private static final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * The steps of a session. Apply and browse are main thread work.
+     */
+    public enum Op {
+        JOIN,
+        LOAD,
+        APPLY,
+        BROWSE,
+        SAVE,
+        QUIT
+    }
+
+    public enum Backend {
+        YAML,
+        MYSQL;
+
+        /**
+         * @return The backend set under {@code database} in the config.
+         */
+        public static Backend configured() {
+            return "mysql".equalsIgnoreCase(Utils.plugin().getConfig().getString("database")) ? MYSQL : YAML;
+        }
+    }
+
+    /**
+     * @param name       The operation, or {@code tick.*} for the main thread per tick.
+     * @param perSecond  Throughput over the whole test, {@code 0} for per-tick rows.
+     */
+    public record Row(String name, long count, double perSecond, double meanMicros, long p50Micros, long p99Micros) {
+
+    }
+
+    public record Report(Backend backend, int players, int seconds, List<Row> rows, long errors) {
+
+    }
+
+    private final Backend backend;
+    private final int players;
+    private final int seconds;
+    private final long endsAt;
+
+    private final Map<Op, LatencyHistogram> latencies = new EnumMap<>(Op.class);
+    private final LatencyHistogram mainThreadPerTick = new LatencyHistogram();
+    private final LatencyHistogram tickInterval = new LatencyHistogram();
+    private final LongAdder mainThreadNanos = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Map<Integer, ItemStack> kit = KitBenchmarks.pvpKit();
+    private final Inventory scratch = Bukkit.createInventory(null, 54);
+    private final File file = new File(Utils.plugin().getDataFolder(), "benchmarks/loadtest-kits.yml");
+    private final KitStorage storage;
+    private final ScheduledExecutorService timer;
+    private final CompletableFuture<Report> done = new CompletableFuture<>();
+
+    private ScheduledTask ticker;
+    private long lastTick;
+
+    private static final class Session {
+        private final String playerUUID;
+        private final Map<Integer, Long> versions = new HashMap<>();
+        private int step;
+
+        private Session(String playerUUID) {
+            this.playerUUID = playerUUID;
+        }
+    }
+
+    private LoadTest(Backend backend, int players, int seconds) {
+        this.backend = backend;
+        this.storage = backend == Backend.MYSQL ? new MySQLKitStorage(scratch()) : new YamlKitStorage(file);
+        this.players = players;
+        this.seconds = seconds;
+        this.endsAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+
+        for (Op op : Op.values()) {
+            latencies.put(op, new LatencyHistogram());
+        }
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VelocityKits Load Test");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The {@code sql} section with the database of the primary, every shard and every replica swapped for
+     * {@code loadtest.database}. The database must exist, the schema is created in it like in any other.
+     */
+    private static ConfigurationSection scratch() {
+        ConfigurationSection sql = Utils.plugin().getConfig().getConfigurationSection("sql");
+        String database = Utils.plugin().getConfig().getString("loadtest.database", "velocity_loadtest");
+
+        ConfigurationSection scratch = new MemoryConfiguration();
+        if (sql != null) sql.getValues(false).forEach(scratch::set);
+
+        // Sessions delete what they wrote, which in the real database could be kits of real players.
+        boolean real = database.equalsIgnoreCase(scratch.getString("database", ""))
+                || scratch.getMapList("shards").stream().anyMatch(shard -> database.equalsIgnoreCase(String.valueOf(shard.get("database"))));
+        if (real) {
+            throw new IllegalStateException("loadtest.database must not be a database that holds real kits.");
+        }
+
+        scratch.set("database", database);
+        scratch.set("replicas", scratch(scratch.getMapList("replicas"), database));
+
+        List<Map<String, Object>> shards = scratch(scratch.getMapList("shards"), database);
+        for (Map<String, Object> shard : shards) {
+            if (shard.get("replicas") instanceof List<?> replicas) {
+                shard.put("replicas", scratch(replicas, database));
+            }
+        }
+        scratch.set("shards", shards);
+
+        return scratch;
+    }
+
+    private static List<Map<String, Object>> scratch(List<?> connections, String database) {
+        List<Map<String, Object>> copies = new ArrayList<>();
+
+        for (Object entry : connections) {
+            if (!(entry instanceof Map<?, ?> connection)) continue;
+
+            Map<String, Object> copy = new LinkedHashMap<>();
+            connection.forEach((key, value) -> copy.put(String.valueOf(key), value));
+            copy.put("database", database);
+            copies.add(copy);
+        }
+
+        return copies;
+    }
+
+    /**
+     * Sets up the scratch storage, then starts the sessions, spread over the first second. Must be called on the main thread.
+     *
+     * @return Completes with the report once every session has quit and the scratch storage is gone.
+     * @throws IllegalStateException If a load test is already running, or {@code loadtest.database} holds real kits.
+     */
+    public static CompletableFuture<Report> start(Backend backend, int players, int seconds) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A load test is already running.");
+        }
+
+        LoadTest test;
+
+        try {
+            test = new LoadTest(backend, players, seconds);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            if (backend == Backend.YAML) test.file.getParentFile().mkdirs();
+            test.storage.setup();
+        }, PluginExecutors.async()).whenCompleteAsync((ignored, throwable) -> {
+            if (throwable != null) {
+                test.timer.shutdown();
+                test.close();
+                running.set(false);
+                test.done.completeExceptionally(throwable);
+                return;
+            }
+
+            test.lastTick = System.nanoTime();
+            test.ticker = PluginExecutors.timer(test::tick, 1, 1);
+
+            test.active.set(players);
+            for (int i = 0; i < players; i++) {
+                Session session = new Session(KitBenchmarks.syntheticUUID(FIRST_SESSION + i));
+                test.timer.schedule(() -> test.join(session), ThreadLocalRandom.current().nextLong(1000), TimeUnit.MILLISECONDS);
+            }
+        }, PluginExecutors.sync());
+
+        return test.done;
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        tickInterval.record(now - lastTick);
+        lastTick = now;
+
+        mainThreadPerTick.record(mainThreadNanos.sumThenReset());
+    }
+
+    /* What a join costs storage, the versions of every kit of the player. */
+    private void join(Session session) {
+        long start = System.nanoTime();
+
+        CompletableFuture.runAsync(() -> session.versions.putAll(storage.versions(session.playerUUID)), lane(session))
+                .whenComplete((ignored, throwable) -> next(session, Op.JOIN, start, throwable));
+    }
+
+    private void next(Session session, Op op, long start, Throwable throwable) {
+        latencies.get(op).record(System.nanoTime() - start);
+        if (throwable != null) errors.increment();
+
+        if (System.currentTimeMillis() >= endsAt) {
+            quit(session);
+            return;
+        }
+
+        long think = ThreadLocalRandom.current().nextLong(MIN_THINK_MILLIS, MAX_THINK_MILLIS);
+        timer.schedule(() -> step(session), think, TimeUnit.MILLISECONDS);
+    }
+
+    private void step(Session session) {
+        int kitNumber = 1 + ThreadLocalRandom.current().nextInt(KITS_PER_SESSION);
+        long start = System.nanoTime();
+
+        switch (session.step++ % 3) {
+            case 0 -> CompletableFuture.supplyAsync(() -> load(session, kitNumber), lane(session))
+                    .thenAcceptAsync(contents -> latencies.get(Op.APPLY).record(mainThread(() -> apply(contents))), PluginExecutors.sync())
+                    .whenComplete((ignored, throwable) -> next(session, Op.LOAD, start, throwable));
+            case 1 -> CompletableFuture.runAsync(() -> mainThread(() -> {
+                        KitRoomCategory[] categories = KitRoomCategory.values();
+                        new KitRoomMenu(categories[ThreadLocalRandom.current().nextInt(categories.length)]);
+                    }), PluginExecutors.sync())
+                    .whenComplete((ignored, throwable) -> next(session, Op.BROWSE, start, throwable));
+            default -> CompletableFuture.supplyAsync(() -> save(session, kitNumber, edited()), lane(session))
+                    .whenComplete((result, throwable) -> next(session, Op.SAVE, start,
+                            throwable == null && !result.saved() ? new IllegalStateException("Save conflict") : throwable));
+        }
+    }
+
+    private Executor lane(Session session) {
+        return StorageLanes.lane(session.playerUUID);
+    }
+
+    /* Same work Kit.contents does on a cache miss. */
+    private Map<Integer, ItemStack> load(Session session, int kitNumber) {
+        StoredKit stored = storage.read(session.playerUUID, kitNumber);
+        return stored == null ? Map.of() : Serializers.base64().deserializeItemStackMap(stored.data());
+    }
+
+    /* Same work Kit.save does, minus the cache, the change feed and the history. */
+    private WriteResult save(Session session, int kitNumber, Map<Integer, ItemStack> contents) {
+        String data = Serializers.base64().serializeItemStacks(contents);
+        WriteResult result = storage.write(session.playerUUID, kitNumber, data, session.versions.getOrDefault(kitNumber, 0L));
+
+        if (result.saved()) session.versions.put(kitNumber, result.version());
+        return result;
+    }
+
+    /* Same work Kit.apply does, minus the player. */
+    private void apply(Map<Integer, ItemStack> contents) {
+        for (int slot = 0; slot < Kit.SIZE; slot++) {
+            scratch.setItem(slot, contents.get(slot));
+        }
+    }
+
+    private Map<Integer, ItemStack> edited() {
+        Map<Integer, ItemStack> edited = new HashMap<>(kit);
+        int slot = ThreadLocalRandom.current().nextInt(Kit.SIZE);
+
+        if (edited.remove(slot) == null) {
+            edited.put(slot, new ItemStack(Material.OBSIDIAN, 1 + ThreadLocalRandom.current().nextInt(64)));
+        }
+
+        return edited;
+    }
+
+    /**
+     * @return How long the work took, also counted towards the current tick.
+     */
+    private long mainThread(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+
+        long nanos = System.nanoTime() - start;
+        mainThreadNanos.add(nanos);
+        return nanos;
+    }
+
+    /* Deletes the session's kits, which is all a MySQL scratch database keeps of it. */
+    private void quit(Session session) {
+        long start = System.nanoTime();
+
+        CompletableFuture.runAsync(() -> {
+                    for (int kitNumber = 1; kitNumber <= KITS_PER_SESSION; kitNumber++) {
+                        storage.delete(session.playerUUID, kitNumber);
+                    }
+                }, lane(session))
+                .whenComplete((ignored, throwable) -> {
+                    latencies.get(Op.QUIT).record(System.nanoTime() - start);
+                    if (throwable != null) errors.increment();
+
+                    if (active.decrementAndGet() == 0) finish();
+                });
+    }
+
+    private void finish() {
+        ticker.cancel();
+        timer.shutdown();
+
+        if (!close()) errors.increment();
+
+        List<Row> rows = new ArrayList<>();
+        for (Op op : Op.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies.get(op).snapshot();
+            rows.add(row(op.name().toLowerCase(), snapshot, (double) snapshot.count() / seconds));
+        }
+
+        rows.add(row("tick.main-thread", mainThreadPerTick.snapshot(), 0));
+        rows.add(row("tick.interval", tickInterval.snapshot(), 0));
+
+        running.set(false);
+        done.complete(new Report(backend, players, seconds, rows, errors.sum()));
+    }
+
+    /**
+     * Closes the scratch storage and deletes the scratch file.
+     *
+     * @return Whether the scratch file is gone.
+     */
+    private boolean close() {
+        storage.close();
+        return backend != Backend.YAML || !file.exists() || file.delete();
+    }
+
+    private static Row row(String name, LatencyHistogram.Snapshot snapshot, double perSecond) {
+        return new Row(name, snapshot.count(), perSecond, snapshot.meanMicros(),
+                snapshot.percentileMicros(0.50), snapshot.percentileMicros(0.99));
+    }
+
+    /**
+     * Writes the report to {@code benchmarks/} in the data folder, next to the benchmark results.
+     *
+     * @return The file the report was written to.
+     */
+    public static Path write(Report report) throws IOException {
+        Path directory = Utils.plugin().getDataFolder().toPath().resolve("benchmarks");
+        Files.createDirectories(directory);
+
+        Path file = directory.resolve("loadtest-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# VelocityKits " + Utils.plugin().getDescription().getVersion()
+                + ", " + Bukkit.getVersion()
+                + ", " + report.backend().name().toLowerCase() + ", " + report.players() + " players for " + report.seconds() + "s, "
+                + report.errors() + " errors");
+        lines.add("op,count,per_sec,mean_us,p50_us,p99_us");
+
+        for (Row row : report.rows()) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%.1f,%.2f,%d,%d",
+                    row.name(), row.count(), row.perSecond(), row.meanMicros(), row.p50Micros(), row.p99Micros()));
+        }
+
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,94 @@
+package dev.manere.velocitykits.broadcast;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.location.PlayerGrid;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.text.DecimalFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects "loaded a kit" notifications per viewer and flushes them at a fixed interval,
+ * so each viewer gets at most one message per interval no matter how many players load kits around them.
+ * <p>
+ * Loads are queued from whichever thread owns the loading player, the flush runs on the global region.
+ */
+public class KitLoadBroadcaster {
+    private static final Component SINGLE = TextStyle.color("<#879cad><player> <#708291>loaded a kit. (↑ <distance>m away)");
+    private static final Component MULTIPLE = TextStyle.color("<#879cad><amount> players <#708291>loaded kits nearby.");
+    private static final DecimalFormat DISTANCE = new DecimalFormat("#.#");
+
+    private static final Map<UUID, Queue<Loaded>> pending = new ConcurrentHashMap<>();
+    private static double radius;
+
+    private record Loaded(String name, double distance) {
+
+    }
+
+    public static void of() {
+        radius = Utils.plugin().getConfig().getDouble("broadcast.radius", 25);
+        long interval = Math.max(1, Utils.plugin().getConfig().getLong("broadcast.interval-ticks", 20));
+
+        PluginExecutors.timer(KitLoadBroadcaster::flush, interval, interval);
+    }
+
+    /**
+     * Queues a notification for everyone near the player.
+     */
+    public static void loaded(Player player) {
+        for (PlayerGrid.Nearby nearby : PlayerGrid.nearby(player, radius)) {
+            Loaded loaded = new Loaded(player.getName(), nearby.distance());
+
+            // Added inside compute, so the flush can't drop the entry between looking it up and adding to it.
+            pending.compute(nearby.player().getUniqueId(), (uuid, loads) -> {
+                if (loads == null) loads = new ConcurrentLinkedQueue<>();
+                loads.add(loaded);
+                return loads;
+            });
+        }
+    }
+
+    private static void flush() {
+        if (pending.isEmpty()) return;
+
+        for (UUID viewerUUID : pending.keySet()) {
+            Queue<Loaded> loads = pending.get(viewerUUID);
+            if (loads == null) continue;
+
+            // Drained rather than removed, a load queued meanwhile is either polled here or left for the next flush.
+            List<Loaded> list = new ArrayList<>();
+            for (Loaded loaded = loads.poll(); loaded != null; loaded = loads.poll()) {
+                list.add(loaded);
+            }
+
+            // Dropped only while still empty, atomically with respect to loaded().
+            pending.computeIfPresent(viewerUUID, (uuid, queue) -> queue.isEmpty() ? null : queue);
+
+            Player viewer = Bukkit.getPlayer(viewerUUID);
+            if (viewer == null || list.isEmpty()) continue;
+
+            if (list.size() == 1) {
+                Loaded loaded = list.get(0);
+                viewer.sendMessage(SINGLE
+                        .replaceText(replace("<player>", loaded.name()))
+                        .replaceText(replace("<distance>", DISTANCE.format(loaded.distance()))));
+            } else {
+                viewer.sendMessage(MULTIPLE.replaceText(replace("<amount>", String.valueOf(list.size()))));
+            }
+        }
+    }
+
+    private static TextReplacementConfig replace(String placeholder, String value) {
+        return TextReplacementConfig.builder()
+                .matchLiteral(placeholder)
+                .replacement(value)
+                .build();
+    }
+}
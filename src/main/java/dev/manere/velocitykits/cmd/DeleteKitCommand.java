@@ -1,10 +1,12 @@
 package dev.manere.velocitykits.cmd;
 
-import dev.manere.utils.server.Servers;
+import dev.manere.utils.library.Utils;
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
 import dev.manere.velocitykits.storage.kit.Kit;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
+import dev.manere.velocitykits.storage.kit.KitSlots;
+import dev.manere.velocitykits.storage.player.PlayerDirectory;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -14,7 +16,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class DeleteKitCommand implements CommandExecutor, CommandInfo, TabCompleter {
 
@@ -31,6 +36,10 @@ public class DeleteKitCommand implements CommandExecutor, CommandInfo, TabComple
             return true;
         }
 
+        if (!Readiness.check(player)) {
+            return true;
+        }
+
         if (args.length != 2) {
             return help(label, player);
         }
@@ -42,54 +51,67 @@ public class DeleteKitCommand implements CommandExecutor, CommandInfo, TabComple
         try {
             kitNumber = Integer.parseInt(kit);
         } catch (NumberFormatException e) {
-            player.sendMessage(TextStyle.color("<#ff0000>Invalid kit number. Can only be 1-8."));
+            player.sendMessage(TextStyle.color("<#ff0000>Invalid kit number. Can only be 1-<max>."
+                    .replaceAll("<max>", String.valueOf(KitSlots.max()))));
             return true;
         }
 
-        if (kitNumber > 8) {
-            player.sendMessage(TextStyle.color("<#ff0000>Invalid kit number. Can only be 1-8."));
+        if (kitNumber < 1 || kitNumber > KitSlots.max()) {
+            player.sendMessage(TextStyle.color("<#ff0000>Invalid kit number. Can only be 1-<max>."
+                    .replaceAll("<max>", String.valueOf(KitSlots.max()))));
             return true;
         }
 
         String targetName = args[1];
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
-
-        if (!target.hasPlayedBefore()) {
-            player.sendMessage(TextStyle.color("<#ff0000>Player not found."));
-            return true;
-        }
 
-        final boolean[] contentsEmpty = {false};
-
-        Kit.contentsAsync(String.valueOf(target.getUniqueId()), kitNumber, contents -> {
-            if (contents.isEmpty()) {
-                contentsEmpty[0] = true;
-            }
-        });
-
-        if (contentsEmpty[0]) {
-            player.sendMessage(TextStyle.color("<#ff0000>That player doesn't have a kit under kit number <number>."
-                    .replaceAll("<number>", kit)));
-            return true;
-        }
-
-        Kit.delete(String.valueOf(target.getUniqueId()), kitNumber);
-        player.sendMessage(TextStyle.color("<#00ff00>The kit has been deleted."));
+        PlayerDirectory.resolve(targetName)
+                .thenCompose(target -> {
+                    if (target.isEmpty()) {
+                        return CompletableFuture.completedFuture(Result.PLAYER_NOT_FOUND);
+                    }
+
+                    String targetUUID = target.get().toString();
+
+                    return Kit.contentsFuture(targetUUID, kitNumber).thenCompose(contents -> contents.isEmpty()
+                            ? CompletableFuture.completedFuture(Result.KIT_NOT_FOUND)
+                            : Kit.deleteFuture(targetUUID, kitNumber).thenApply(ignored -> Result.DELETED));
+                })
+                .whenCompleteAsync((result, throwable) -> {
+                    if (!player.isOnline()) return;
+
+                    if (throwable != null) {
+                        Utils.plugin().getLogger().log(Level.SEVERE, "Failed to delete kit " + kitNumber + " of " + targetName, throwable);
+                        player.sendMessage(TextStyle.color("<#ff0000>An error has occurred. Failed to delete the kit."));
+                        return;
+                    }
+
+                    switch (result) {
+                        case PLAYER_NOT_FOUND -> player.sendMessage(TextStyle.color("<#ff0000>Player not found."));
+                        case KIT_NOT_FOUND -> player.sendMessage(TextStyle.color("<#ff0000>That player doesn't have a kit under kit number <number>."
+                                .replaceAll("<number>", kit)));
+                        case DELETED -> player.sendMessage(TextStyle.color("<#00ff00>The kit has been deleted."));
+                    }
+                }, PluginExecutors.entity(player));
 
         return true;
     }
 
+    private enum Result {
+        PLAYER_NOT_FOUND,
+        KIT_NOT_FOUND,
+        DELETED
+    }
+
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
         if (args.length == 1) {
-            return List.of("1", "2", "3", "4", "5", "6", "7", "8");
+            return IntStream.rangeClosed(1, KitSlots.max())
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.toList());
         }
 
         if (args.length == 2) {
-            return Servers.online()
-                    .stream()
-                    .map(Player::getName)
-                    .collect(Collectors.toList());
+            return PlayerDirectory.names(args[1], 50);
         }
 
         return null;
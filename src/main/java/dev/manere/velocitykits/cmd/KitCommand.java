@@ -1,6 +1,7 @@
 package dev.manere.velocitykits.cmd;
 
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
 import dev.manere.velocitykits.menu.MainMenu;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -17,12 +18,16 @@ public class KitCommand implements CommandExecutor {
             return true;
         }
 
+        if (!Readiness.check(player)) {
+            return true;
+        }
+
         if (args.length != 0) {
             player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /" + label));
             return true;
         }
 
-        new MainMenu().open(player);
+        new MainMenu(player).open(player);
 
         return true;
     }
@@ -1,18 +1,29 @@
 package dev.manere.velocitykits.cmd;
 
-import dev.manere.utils.location.LocationUtils;
-import dev.manere.utils.scheduler.Schedulers;
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
+import dev.manere.velocitykits.broadcast.KitLoadBroadcaster;
+import dev.manere.velocitykits.limit.RateLimiter;
 import dev.manere.velocitykits.storage.kit.Kit;
+import dev.manere.velocitykits.storage.kit.KitCache;
+import dev.manere.velocitykits.storage.kit.KitSlots;
 import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
-import java.text.DecimalFormat;
+import java.util.Map;
 
-public class KitLoadCommand implements CommandExecutor, CommandInfo {
+/**
+ * A single command serving every {@code kitN}/{@code kN} label, the kit number is looked up from the label.
+ * It is registered at runtime so the amount of kits can be configured.
+ */
+public class KitLoadCommand extends Command implements CommandInfo {
+
+    public KitLoadCommand() {
+        super("loadkit", "Loads one of your kits.", "/kit<number>", KitSlots.labels());
+    }
 
     @Override
     public boolean help(String label, Player player) {
@@ -22,47 +33,57 @@ public class KitLoadCommand implements CommandExecutor, CommandInfo {
     }
 
     @Override
-    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
+    public boolean execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
         if (!(sender instanceof Player player)) {
             sender.sendMessage(TextStyle.color("<#ff0000>Only player's can execute this command."));
             return true;
         }
 
-        switch (cmd.getName()) {
-            case "kit1" -> loadKit(player, 1);
-
-            case "kit2" -> loadKit(player, 2);
+        if (!Readiness.check(player)) {
+            return true;
+        }
 
-            case "kit3" -> loadKit(player, 3);
+        int kitNumber = KitSlots.number(label);
 
-            case "kit4" -> loadKit(player, 4);
+        if (kitNumber == -1) {
+            if (args.length != 1) {
+                return help(label + " <number>", player);
+            }
 
-            case "kit5" -> loadKit(player, 5);
+            try {
+                kitNumber = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                return help(label + " <number>", player);
+            }
+        } else if (args.length != 0) {
+            return help(label, player);
+        }
 
-            case "kit6" -> loadKit(player, 6);
+        if (kitNumber < 1 || kitNumber > KitSlots.count(player)) {
+            player.sendMessage(TextStyle.color("<#ff0000>You don't have access to that kit."));
+            return true;
+        }
 
-            case "kit7" -> loadKit(player, 7);
+        if (!RateLimiter.tryAcquire(player, RateLimiter.Group.KIT_LOAD)) {
+            // Over the limit: only answer from memory, never queue more storage work.
+            Map<Integer, ItemStack> cached = KitCache.get(player.getUniqueId().toString(), kitNumber);
 
-            case "kit8" -> loadKit(player, 8);
+            if (cached == null) {
+                player.sendActionBar(TextStyle.color("<#ff0000>You're loading kits too quickly!"));
+            } else {
+                Kit.apply(player, kitNumber, cached);
+            }
 
-            default -> player.sendMessage(TextStyle.color("<white>Invalid command."));
+            return true;
         }
 
+        loadKit(player, kitNumber);
+
         return true;
     }
 
     public void loadKit(Player player, int kitNum) {
         Kit.load(player, kitNum);
-
-        Schedulers.async().execute(task -> {
-            for (Player target : LocationUtils.playersNearPlayer(player, 25)) {
-                double distance = player.getLocation().distance(target.getLocation());
-                String formattedDistance = new DecimalFormat("#.#").format(distance);
-
-                target.sendMessage(TextStyle.color("<#879cad><player> <#708291>loaded a kit. (↑ <distance>m away)"
-                        .replaceAll("<player>", player.getName())
-                        .replaceAll("<distance>", formattedDistance)));
-            }
-        });
+        KitLoadBroadcaster.loaded(player);
     }
 }
@@ -1,6 +1,7 @@
 package dev.manere.velocitykits.cmd;
 
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
 import dev.manere.velocitykits.menu.KitRoomAdminMenu;
 import dev.manere.velocitykits.storage.room.KitRoom;
 import dev.manere.velocitykits.storage.room.KitRoomCategory;
@@ -23,6 +24,10 @@ public class KitRoomAdminCommand implements CommandExecutor, CommandInfo, TabCom
             return true;
         }
 
+        if (!Readiness.check(player)) {
+            return true;
+        }
+
         if (args.length != 2) {
             return help(label, player);
         }
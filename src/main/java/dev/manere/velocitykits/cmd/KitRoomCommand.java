@@ -1,14 +1,21 @@
 package dev.manere.velocitykits.cmd;
 
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
 import dev.manere.velocitykits.menu.KitRoomMenu;
+import dev.manere.velocitykits.menu.KitRoomSearchMenu;
+import dev.manere.velocitykits.storage.search.ItemIndex;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class KitRoomCommand implements CommandExecutor {
+import java.util.List;
+
+public class KitRoomCommand implements CommandExecutor, CommandInfo, TabCompleter {
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
@@ -17,13 +24,48 @@ public class KitRoomCommand implements CommandExecutor {
             return true;
         }
 
-        if (args.length != 0) {
-            player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /" + label));
+        if (!Readiness.check(player)) {
+            return true;
+        }
+
+        if (args.length == 0) {
+            new KitRoomMenu().open(player);
+            return true;
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("search")) {
+            KitRoomSearchMenu menu = new KitRoomSearchMenu(args[1]);
+
+            if (menu.empty()) {
+                player.sendMessage(TextStyle.color("<#ff0000>No kit room items match <white><term><#ff0000>."
+                        .replaceAll("<term>", ItemIndex.normalize(args[1]))));
+                return true;
+            }
+
+            menu.open(player);
             return true;
         }
 
-        new KitRoomMenu().open(player);
+        return help(label, player);
+    }
 
+    @Override
+    public boolean help(String label, Player player) {
+        player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> [search <item>]"
+                .replaceAll("<label>", label)));
         return true;
     }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 1) {
+            return List.of("search");
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("search")) {
+            return ItemIndex.roomTerms(args[1], 50);
+        }
+
+        return null;
+    }
 }
@@ -0,0 +1,93 @@
+package dev.manere.velocitykits.cmd;
+
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
+import dev.manere.velocitykits.storage.search.ItemIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class KitSearchCommand implements CommandExecutor, CommandInfo, TabCompleter {
+    private static final int MAX_RESULTS = 20;
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(TextStyle.color("<#ff0000>Only player's can execute this command."));
+            return true;
+        }
+
+        if (!Readiness.check(player)) {
+            return true;
+        }
+
+        if (args.length != 1) {
+            return help(label, player);
+        }
+
+        String term = ItemIndex.normalize(args[0]);
+        Set<ItemIndex.KitKey> kits = ItemIndex.kits(term);
+
+        if (kits.isEmpty()) {
+            player.sendMessage(TextStyle.color("<#ff0000>No saved kits contain <white><term><#ff0000>."
+                    .replaceAll("<term>", term)));
+            return true;
+        }
+
+        List<ItemIndex.KitKey> sorted = new ArrayList<>(kits);
+        sorted.sort(Comparator.comparing(ItemIndex.KitKey::playerUUID).thenComparingInt(ItemIndex.KitKey::kitNumber));
+
+        player.sendMessage(TextStyle.color("<#579af7><amount> kit(s) contain <white><term><#579af7>:"
+                .replaceAll("<amount>", String.valueOf(sorted.size()))
+                .replaceAll("<term>", term)));
+
+        for (ItemIndex.KitKey key : sorted.subList(0, Math.min(MAX_RESULTS, sorted.size()))) {
+            player.sendMessage(TextStyle.color(" <#91bdfa><player> <white>- Kit <number>"
+                    .replaceAll("<player>", name(key.playerUUID()))
+                    .replaceAll("<number>", String.valueOf(key.kitNumber()))));
+        }
+
+        if (sorted.size() > MAX_RESULTS) {
+            player.sendMessage(TextStyle.color(" <gray>...and <amount> more."
+                    .replaceAll("<amount>", String.valueOf(sorted.size() - MAX_RESULTS))));
+        }
+
+        return true;
+    }
+
+    private static String name(String playerUUID) {
+        try {
+            String name = Bukkit.getOfflinePlayer(UUID.fromString(playerUUID)).getName();
+            return name == null ? playerUUID : name;
+        } catch (IllegalArgumentException e) {
+            return playerUUID;
+        }
+    }
+
+    @Override
+    public boolean help(String label, Player player) {
+        player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> <item>"
+                .replaceAll("<label>", label)));
+        return true;
+    }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 1) {
+            return ItemIndex.kitTerms(args[0], 50);
+        }
+
+        return null;
+    }
+}
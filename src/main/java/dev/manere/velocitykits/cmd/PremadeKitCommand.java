@@ -1,17 +1,18 @@
 package dev.manere.velocitykits.cmd;
 
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
 import dev.manere.velocitykits.storage.premade.PremadeKit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -23,37 +24,49 @@ public class PremadeKitCommand implements CommandExecutor, CommandInfo, TabCompl
             return true;
         }
 
+        if (!Readiness.check(player)) {
+            return true;
+        }
+
         PlayerInventory inventory = player.getInventory();
 
-        if (player.hasPermission("velocity.staff") && args.length > 1) {
+        if (args.length > 2) {
             return help(label, player);
         }
 
-        if (!player.hasPermission("velocity.staff") && args.length != 0) {
+        if (args.length >= 1 && args[0].equalsIgnoreCase("export")) {
+            if (!player.hasPermission("velocity.staff")) {
+                return help(label, player);
+            }
+
+            String name = args.length == 2 ? args[1] : PremadeKit.DEFAULT;
+
+            if (name.equalsIgnoreCase("export")) {
+                return help(label, player);
+            }
+
+            PremadeKit.export(name, Arrays.stream(inventory.getContents()).toList());
+            player.sendActionBar(TextStyle.color("<#00ff00>Exported <name> successfully."
+                    .replaceAll("<name>", name.toLowerCase())));
+
+            return true;
+        }
+
+        if (args.length == 2) {
             return help(label, player);
         }
 
-        if (args.length == 0) {
-            inventory.setContents(PremadeKit.contentsItemStacks().toArray(new ItemStack[0]));
-            player.sendActionBar(TextStyle.color("<#00ff00>Premade Kit loaded."));
+        String name = args.length == 1 ? args[0] : PremadeKit.DEFAULT;
+        PremadeKit.Image image = PremadeKit.image(name);
 
+        if (image == null) {
+            player.sendMessage(TextStyle.color("<#ff0000>There is no premade kit called <white><name><#ff0000>."
+                    .replaceAll("<name>", name)));
             return true;
         }
 
-        if (args.length == 1) {
-            if (args[0].equalsIgnoreCase("export")) {
-                if (player.hasPermission("velocity.staff")) {
-                    PremadeKit.contentsItemStacks(Arrays.stream(inventory.getContents()).toList());
-                    player.sendActionBar(TextStyle.color("<#00ff00>Exported successfully."));
-
-                    return true;
-                } else {
-                    return help(label, player);
-                }
-            } else {
-                return help(label, player);
-            }
-        }
+        inventory.setContents(image.contents());
+        player.sendActionBar(TextStyle.color("<#00ff00>Premade Kit loaded."));
 
         return true;
     }
@@ -61,10 +74,10 @@ public class PremadeKitCommand implements CommandExecutor, CommandInfo, TabCompl
     @Override
     public boolean help(String label, Player player) {
         if (player.hasPermission("velocity.staff")) {
-            player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> [export]"
+            player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> [name | export [name]]"
                     .replaceAll("<label>", label)));
         } else {
-            player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label>"
+            player.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> [name]"
                     .replaceAll("<label>", label)));
         }
 
@@ -73,8 +86,18 @@ public class PremadeKitCommand implements CommandExecutor, CommandInfo, TabCompl
 
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
-        if (args.length == 1 && sender.hasPermission("velocity.staff")) {
-            return List.of("export");
+        if (args.length == 1) {
+            List<String> completions = new ArrayList<>(PremadeKit.names());
+
+            if (sender.hasPermission("velocity.staff")) {
+                completions.add("export");
+            }
+
+            return completions;
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("export") && sender.hasPermission("velocity.staff")) {
+            return PremadeKit.names();
         }
 
         return null;
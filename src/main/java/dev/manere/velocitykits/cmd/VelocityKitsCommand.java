@@ -0,0 +1,524 @@
+package dev.manere.velocitykits.cmd;
+
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.Readiness;
+import dev.manere.velocitykits.bench.KitBenchmarks;
+import dev.manere.velocitykits.bench.LoadTest;
+import dev.manere.velocitykits.metrics.LatencyHistogram;
+import dev.manere.velocitykits.menu.editing.KitHistoryMenu;
+import dev.manere.velocitykits.metrics.Metrics;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.storage.IOGuard;
+import dev.manere.velocitykits.storage.kit.Kit;
+import dev.manere.velocitykits.storage.kit.KitArchive;
+import dev.manere.velocitykits.storage.kit.KitHistory;
+import dev.manere.velocitykits.storage.kit.KitSlots;
+import dev.manere.velocitykits.storage.kit.Revision;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Staff tooling, usable from the console as well.
+ */
+public class VelocityKitsCommand implements CommandExecutor, CommandInfo, TabCompleter {
+    private static final List<String> SUBCOMMANDS = List.of("status", "stats", "io", "rebalance", "backup", "restore", "history", "rollback", "bench", "loadtest");
+    private static final int IO_SITES_SHOWN = 10;
+    private static final int DEFAULT_BENCH_ITERATIONS = 1_000;
+    private static final int DEFAULT_LOAD_TEST_PLAYERS = 500;
+    private static final int DEFAULT_LOAD_TEST_SECONDS = 60;
+    private static final int MAX_LOAD_TEST_PLAYERS = 10_000;
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0) {
+            return usage(label, sender);
+        }
+
+        String subcommand = args[0].toLowerCase();
+        int maxArgs = switch (subcommand) {
+            case "bench" -> 2;
+            case "restore", "history" -> 3;
+            case "loadtest", "rollback" -> 4;
+            default -> 1;
+        };
+
+        if (args.length > maxArgs) {
+            return usage(label, sender);
+        }
+
+        // Stats and I/O sites are in memory, everything else needs the storage.
+        if (!subcommand.equals("stats") && !subcommand.equals("io") && !Readiness.check(sender)) {
+            return true;
+        }
+
+        switch (subcommand) {
+            case "status" -> status(sender);
+            case "stats" -> stats(sender);
+            case "io" -> io(sender);
+            case "rebalance" -> rebalance(sender);
+            case "backup" -> backup(sender);
+            case "restore" -> {
+                if (args.length < 2) {
+                    sender.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> restore <file> [player]"
+                            .replaceAll("<label>", label)));
+                    return true;
+                }
+
+                restore(sender, args[1], args.length == 3 ? args[2] : null);
+            }
+            case "history", "rollback" -> {
+                int kitNumber = number(args, 2, -1);
+                int steps = number(args, 3, 1);
+
+                if (args.length < 3 || kitNumber < 1 || kitNumber > KitSlots.max() || steps < 0) {
+                    sender.sendMessage(TextStyle.color((subcommand.equals("history")
+                            ? "<#ff0000>Correct Usage: /<label> history <player> <kit>"
+                            : "<#ff0000>Correct Usage: /<label> rollback <player> <kit> [revisions back]")
+                            .replaceAll("<label>", label)));
+                    return true;
+                }
+
+                if (!KitHistory.enabled()) {
+                    sender.sendMessage(TextStyle.color("<#ff0000>Kit history is disabled in the config."));
+                    return true;
+                }
+
+                if (subcommand.equals("history")) {
+                    history(sender, args[1], kitNumber);
+                } else {
+                    rollback(sender, args[1], kitNumber, steps);
+                }
+            }
+            case "bench" -> {
+                int iterations = number(args, 1, DEFAULT_BENCH_ITERATIONS);
+
+                if (iterations < 1) {
+                    sender.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> bench [iterations]"
+                            .replaceAll("<label>", label)));
+                    return true;
+                }
+
+                bench(sender, iterations);
+            }
+            case "loadtest" -> {
+                int players = number(args, 1, DEFAULT_LOAD_TEST_PLAYERS);
+                int seconds = number(args, 2, DEFAULT_LOAD_TEST_SECONDS);
+                LoadTest.Backend backend = backend(args, 3);
+
+                if (players < 1 || players > MAX_LOAD_TEST_PLAYERS || seconds < 1 || backend == null) {
+                    sender.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> loadtest [players (1-<max>)] [seconds] [yaml|mysql]"
+                            .replaceAll("<label>", label)
+                            .replaceAll("<max>", String.valueOf(MAX_LOAD_TEST_PLAYERS))));
+                    return true;
+                }
+
+                loadTest(sender, backend, players, seconds);
+            }
+            default -> usage(label, sender);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The argument as a number, the fallback if it is missing, or {@code -1} if it isn't a number.
+     */
+    private static int number(String[] args, int index, int fallback) {
+        if (args.length <= index) return fallback;
+
+        try {
+            return Integer.parseInt(args[index]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return The backend named at the index, the configured one if there is none, null if it names no backend.
+     */
+    private static LoadTest.Backend backend(String[] args, int index) {
+        if (args.length <= index) return LoadTest.Backend.configured();
+
+        for (LoadTest.Backend backend : LoadTest.Backend.values()) {
+            if (backend.name().equalsIgnoreCase(args[index])) return backend;
+        }
+
+        return null;
+    }
+
+    private static void status(CommandSender sender) {
+        sender.sendMessage(TextStyle.color("<#579af7>Storage: <white><state> <gray>(<depth> spooled writes)"
+                .replaceAll("<state>", Kit.breakerState().name().toLowerCase().replace('_', '-'))
+                .replaceAll("<depth>", String.valueOf(Kit.spoolDepth()))));
+    }
+
+    private static void stats(CommandSender sender) {
+        sender.sendMessage(TextStyle.color("<#579af7>Kit operations: <white><loads> <gray>loads, <white><saves> <gray>saves, <white><deletes> <gray>deletes, <white><menus> <gray>menus opened"
+                .replaceAll("<loads>", String.valueOf(Metrics.Counter.LOADS.value()))
+                .replaceAll("<saves>", String.valueOf(Metrics.Counter.SAVES.value()))
+                .replaceAll("<deletes>", String.valueOf(Metrics.Counter.DELETES.value()))
+                .replaceAll("<menus>", String.valueOf(Metrics.Counter.MENU_OPENS.value()))));
+
+        sender.sendMessage(TextStyle.color("<#579af7>Cache hit ratio: <white><ratio>% <gray>(<hits> hits, <misses> misses)"
+                .replaceAll("<ratio>", String.format(Locale.ROOT, "%.1f", Metrics.cacheHitRatio() * 100))
+                .replaceAll("<hits>", String.valueOf(Metrics.Counter.CACHE_HITS.value()))
+                .replaceAll("<misses>", String.valueOf(Metrics.Counter.CACHE_MISSES.value()))));
+
+        sender.sendMessage(TextStyle.color("<#579af7>Errors: <white><load> <gray>load, <white><save> <gray>save, <white><delete> <gray>delete, <white><conflicts> <gray>conflicts, <white><spooled> <gray>spooled saves"
+                .replaceAll("<load>", String.valueOf(Metrics.Counter.LOAD_ERRORS.value()))
+                .replaceAll("<save>", String.valueOf(Metrics.Counter.SAVE_ERRORS.value()))
+                .replaceAll("<delete>", String.valueOf(Metrics.Counter.DELETE_ERRORS.value()))
+                .replaceAll("<conflicts>", String.valueOf(Metrics.Counter.SAVE_CONFLICTS.value()))
+                .replaceAll("<spooled>", String.valueOf(Metrics.Counter.SAVES_SPOOLED.value()))));
+
+        sender.sendMessage(TextStyle.color("<#579af7>Rate limited: <white><load> <gray>kit loads, <white><edit> <gray>kit edits"
+                .replaceAll("<load>", String.valueOf(Metrics.Counter.RATE_LIMITED_KIT_LOAD.value()))
+                .replaceAll("<edit>", String.valueOf(Metrics.Counter.RATE_LIMITED_KIT_EDIT.value()))));
+
+        for (Metrics.Timer timer : Metrics.Timer.values()) {
+            LatencyHistogram.Snapshot snapshot = timer.histogram().snapshot();
+            if (snapshot.count() == 0) continue;
+
+            sender.sendMessage(TextStyle.color(" <#91bdfa><operation> <stage>: <white><mean>µs <gray>mean, <white>≤<p50>µs <gray>p50, <white>≤<p99>µs <gray>p99 <dark_gray>(<count>)"
+                    .replaceAll("<operation>", timer.operation().replace('_', ' '))
+                    .replaceAll("<stage>", timer.stage())
+                    .replaceAll("<mean>", String.format(Locale.ROOT, "%.1f", snapshot.meanMicros()))
+                    .replaceAll("<p50>", String.valueOf(snapshot.percentileMicros(0.50)))
+                    .replaceAll("<p99>", String.valueOf(snapshot.percentileMicros(0.99)))
+                    .replaceAll("<count>", String.valueOf(snapshot.count()))));
+        }
+    }
+
+    private static void io(CommandSender sender) {
+        List<Map.Entry<IOGuard.Site, IOGuard.Stats>> sites = IOGuard.sites();
+
+        if (sites.isEmpty()) {
+            sender.sendMessage(TextStyle.color("<#00ff00>No I/O has run on the main thread."));
+            return;
+        }
+
+        sender.sendMessage(TextStyle.color("<#579af7>I/O on the main thread <gray>(<mode> mode), most time first:"
+                .replaceAll("<mode>", IOGuard.mode().name().toLowerCase())));
+
+        for (Map.Entry<IOGuard.Site, IOGuard.Stats> entry : sites.subList(0, Math.min(IO_SITES_SHOWN, sites.size()))) {
+            IOGuard.Stats stats = entry.getValue();
+
+            sender.sendMessage(TextStyle.color(" <#91bdfa><operation> <gray>from <white><caller><gray>: <white><count>x<gray>, <white><total>ms <gray>total, <white><max>ms <gray>max"
+                    .replaceAll("<operation>", entry.getKey().operation())
+                    .replace("<caller>", entry.getKey().caller())
+                    .replaceAll("<count>", String.valueOf(stats.count()))
+                    .replaceAll("<total>", String.format(Locale.ROOT, "%.1f", stats.totalNanos() / 1_000_000.0))
+                    .replaceAll("<max>", String.format(Locale.ROOT, "%.1f", stats.maxNanos() / 1_000_000.0))));
+        }
+    }
+
+    private static void rebalance(CommandSender sender) {
+        sender.sendMessage(TextStyle.color("<#579af7>Rebalancing kit shards..."));
+
+        CompletableFuture.supplyAsync(() -> Kit.rebalance(line -> PluginExecutors.sync().execute(() ->
+                        sender.sendMessage(TextStyle.color(" <#91bdfa>" + line)))), PluginExecutors.async())
+                .whenCompleteAsync((moved, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Rebalance failed: " + cause.getMessage()));
+                        return;
+                    }
+
+                    sender.sendMessage(TextStyle.color("<#00ff00>Rebalance done, moved <amount> rows."
+                            .replaceAll("<amount>", String.valueOf(moved))));
+                }, PluginExecutors.sync());
+    }
+
+    private static void backup(CommandSender sender) {
+        sender.sendMessage(TextStyle.color("<#579af7>Backing up every kit..."));
+
+        CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return KitArchive.backup();
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, PluginExecutors.async())
+                .whenCompleteAsync((summary, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Backup failed: " + cause.getMessage()));
+                        return;
+                    }
+
+                    sender.sendMessage(TextStyle.color("<#00ff00>Backed up <kits> kits and <names> names to <file>."
+                            .replaceAll("<kits>", String.valueOf(summary.kits()))
+                            .replaceAll("<names>", String.valueOf(summary.names()))
+                            .replace("<file>", summary.file().getFileName().toString())));
+                    throughput(sender, summary);
+                }, PluginExecutors.sync());
+    }
+
+    /**
+     * @param player A player name or UUID, or null to restore everyone.
+     */
+    private static void restore(CommandSender sender, String file, @Nullable String player) {
+        Path archive = KitArchive.directory().resolve(file).normalize();
+
+        if (!archive.startsWith(KitArchive.directory()) || !Files.isRegularFile(archive)) {
+            sender.sendMessage(TextStyle.color("<#ff0000>There is no backup called <white><file><#ff0000>."
+                    .replace("<file>", file)));
+            return;
+        }
+
+        sender.sendMessage(TextStyle.color("<#579af7>Restoring kits from <file>..."
+                .replace("<file>", file)));
+
+        CompletableFuture.supplyAsync(() -> {
+                    String playerUUID = player == null ? null : uuid(player)
+                            .orElseThrow(() -> new IllegalArgumentException("Unknown player " + player + "."));
+
+                    try {
+                        return KitArchive.restore(archive, playerUUID);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, PluginExecutors.async())
+                .whenCompleteAsync((summary, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Restore failed: " + cause.getMessage()));
+                        return;
+                    }
+
+                    sender.sendMessage(TextStyle.color("<#00ff00>Restored <kits> kits and <names> names<errors>."
+                            .replaceAll("<kits>", String.valueOf(summary.kits()))
+                            .replaceAll("<names>", String.valueOf(summary.names()))
+                            .replaceAll("<errors>", summary.errors() == 0 ? "" : ", <#ff0000>" + summary.errors() + " failed")));
+                    throughput(sender, summary);
+                }, PluginExecutors.sync());
+    }
+
+    /* Players get the history menu, the console a list. */
+    private static void history(CommandSender sender, String player, int kitNumber) {
+        CompletableFuture.supplyAsync(() -> uuid(player)
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown player " + player + ".")), PluginExecutors.async())
+                .thenCompose(playerUUID -> {
+                    if (sender instanceof Player viewer) {
+                        PluginExecutors.entity(viewer).execute(() -> KitHistoryMenu.open(viewer, playerUUID, kitNumber));
+                        return CompletableFuture.<List<Revision>>completedFuture(null);
+                    }
+
+                    return KitHistory.revisions(playerUUID, kitNumber);
+                })
+                .whenCompleteAsync((revisions, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Failed to read the history: " + cause.getMessage()));
+                        return;
+                    }
+
+                    if (revisions == null) return;
+
+                    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                    sender.sendMessage(TextStyle.color("<#579af7>Kit <kit> of <player> has <amount> revisions:"
+                            .replaceAll("<kit>", String.valueOf(kitNumber))
+                            .replaceAll("<player>", player)
+                            .replaceAll("<amount>", String.valueOf(revisions.size()))));
+
+                    for (int index = 0; index < revisions.size(); index++) {
+                        Revision revision = revisions.get(index);
+
+                        sender.sendMessage(TextStyle.color(" <#91bdfa>-<index> <white><date> <gray><changes>"
+                                .replaceAll("<index>", String.valueOf(index))
+                                .replaceAll("<date>", format.format(new Date(revision.savedAt())))
+                                .replaceAll("<changes>", revision.full()
+                                        ? "full kit, " + revision.changes() + " items"
+                                        : revision.changes() + " slots changed")));
+                    }
+                }, PluginExecutors.sync());
+    }
+
+    /**
+     * @param steps How many revisions to go back from the latest one.
+     */
+    private static void rollback(CommandSender sender, String player, int kitNumber, int steps) {
+        CompletableFuture.supplyAsync(() -> uuid(player)
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown player " + player + ".")), PluginExecutors.async())
+                .thenCompose(playerUUID -> KitHistory.revisions(playerUUID, kitNumber).thenCompose(revisions -> {
+                    if (steps >= revisions.size()) {
+                        throw new IllegalArgumentException("Kit " + kitNumber + " of " + player + " only has " + revisions.size() + " revisions.");
+                    }
+
+                    return KitHistory.restore(playerUUID, kitNumber, revisions.get(steps).id());
+                }))
+                .whenCompleteAsync((result, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Rollback failed: " + cause.getMessage()));
+                    } else if (result == null) {
+                        sender.sendMessage(TextStyle.color("<#ff0000>That revision was just pruned, try again."));
+                    } else if (!result.saved()) {
+                        sender.sendMessage(TextStyle.color("<#ff0000>That kit was changed on another server, try again."));
+                    } else {
+                        sender.sendMessage(TextStyle.color("<#00ff00>Rolled kit <kit> of <player> back <steps> revisions."
+                                .replaceAll("<kit>", String.valueOf(kitNumber))
+                                .replaceAll("<player>", player)
+                                .replaceAll("<steps>", String.valueOf(steps))));
+                    }
+                }, PluginExecutors.sync());
+    }
+
+    private static Optional<String> uuid(String player) {
+        try {
+            return Optional.of(UUID.fromString(player).toString());
+        } catch (IllegalArgumentException e) {
+            return Kit.uuid(player);
+        }
+    }
+
+    private static void throughput(CommandSender sender, KitArchive.Summary summary) {
+        sender.sendMessage(TextStyle.color(" <#91bdfa><size> in <seconds>s: <white><kits> <gray>kits/s, <white><rate> <gray>MiB/s"
+                .replaceAll("<size>", String.format(Locale.ROOT, "%.1f MiB", summary.bytes() / (1024.0 * 1024)))
+                .replaceAll("<seconds>", String.format(Locale.ROOT, "%.1f", summary.nanos() / 1e9))
+                .replaceAll("<kits>", String.format(Locale.ROOT, "%.0f", summary.kitsPerSecond()))
+                .replaceAll("<rate>", String.format(Locale.ROOT, "%.1f", summary.megabytesPerSecond()))));
+    }
+
+    /* Codecs are measured off the main thread, menus on it, since that is where players build them. */
+    private static void bench(CommandSender sender, int iterations) {
+        sender.sendMessage(TextStyle.color("<#579af7>Running benchmarks with <iterations> iterations..."
+                .replaceAll("<iterations>", String.valueOf(iterations))));
+
+        Player player = sender instanceof Player ? (Player) sender : null;
+
+        CompletableFuture.supplyAsync(() -> KitBenchmarks.codec(iterations), PluginExecutors.async())
+                .thenApplyAsync(results -> {
+                    List<KitBenchmarks.Result> all = new ArrayList<>(results);
+                    all.addAll(KitBenchmarks.menus(player, iterations));
+                    return all;
+                }, PluginExecutors.sync())
+                .thenApplyAsync(results -> {
+                    try {
+                        return Map.entry(results, KitBenchmarks.write(results));
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, PluginExecutors.async())
+                .whenCompleteAsync((written, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Benchmarks failed: " + cause.getMessage()));
+                        return;
+                    }
+
+                    for (KitBenchmarks.Result result : written.getKey()) {
+                        sender.sendMessage(TextStyle.color(" <#91bdfa><name> <gray><param>: <white><mean>µs <gray>mean, <white>≤<p99>µs <gray>p99"
+                                .replaceAll("<name>", result.name())
+                                .replaceAll("<param>", result.param())
+                                .replaceAll("<mean>", String.format(Locale.ROOT, "%.1f", result.meanMicros()))
+                                .replaceAll("<p99>", String.valueOf(result.p99Micros()))));
+                    }
+
+                    sender.sendMessage(TextStyle.color("<#00ff00>Benchmarks done, results written to <file>."
+                            .replaceAll("<file>", written.getValue().getFileName().toString())));
+                }, PluginExecutors.sync());
+    }
+
+    private static void loadTest(CommandSender sender, LoadTest.Backend backend, int players, int seconds) {
+        CompletableFuture<LoadTest.Report> test;
+
+        try {
+            test = LoadTest.start(backend, players, seconds);
+        } catch (IllegalStateException e) {
+            sender.sendMessage(TextStyle.color("<#ff0000>" + e.getMessage()));
+            return;
+        }
+
+        sender.sendMessage(TextStyle.color("<#579af7>Simulating <players> players for <seconds> seconds on a scratch <backend> store..."
+                .replaceAll("<backend>", backend.name().toLowerCase())
+                .replaceAll("<players>", String.valueOf(players))
+                .replaceAll("<seconds>", String.valueOf(seconds))));
+
+        test.thenApplyAsync(report -> {
+                    try {
+                        return Map.entry(report, LoadTest.write(report));
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, PluginExecutors.async())
+                .whenCompleteAsync((written, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                        sender.sendMessage(TextStyle.color("<#ff0000>Load test failed: " + cause.getMessage()));
+                        return;
+                    }
+
+                    LoadTest.Report report = written.getKey();
+
+                    for (LoadTest.Row row : report.rows()) {
+                        sender.sendMessage(TextStyle.color(" <#91bdfa><name>: <white><rate> <gray>mean <white><mean>µs<gray>, p99 <white>≤<p99>µs <dark_gray>(<count>)"
+                                .replaceAll("<name>", row.name())
+                                .replaceAll("<rate>", row.perSecond() == 0 ? "" : String.format(Locale.ROOT, "%.1f/s,", row.perSecond()))
+                                .replaceAll("<mean>", String.format(Locale.ROOT, "%.1f", row.meanMicros()))
+                                .replaceAll("<p99>", String.valueOf(row.p99Micros()))
+                                .replaceAll("<count>", String.valueOf(row.count()))));
+                    }
+
+                    sender.sendMessage(TextStyle.color("<#00ff00>Load test done with <errors> errors, results written to <file>."
+                            .replaceAll("<errors>", String.valueOf(report.errors()))
+                            .replaceAll("<file>", written.getValue().getFileName().toString())));
+                }, PluginExecutors.sync());
+    }
+
+    @Override
+    public boolean help(String label, Player player) {
+        return usage(label, player);
+    }
+
+    private static boolean usage(String label, CommandSender sender) {
+        sender.sendMessage(TextStyle.color("<#ff0000>Correct Usage: /<label> <subcommands>"
+                .replaceAll("<label>", label)
+                .replaceAll("<subcommands>", String.join(" | ", SUBCOMMANDS))));
+        return true;
+    }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 1) {
+            return SUBCOMMANDS.stream()
+                    .filter(subcommand -> subcommand.startsWith(args[0].toLowerCase()))
+                    .toList();
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("restore")) {
+            return KitArchive.archives().stream()
+                    .filter(archive -> archive.startsWith(args[1]))
+                    .toList();
+        }
+
+        if (args.length == 4 && args[0].equalsIgnoreCase("loadtest")) {
+            return Arrays.stream(LoadTest.Backend.values())
+                    .map(backend -> backend.name().toLowerCase())
+                    .filter(backend -> backend.startsWith(args[3].toLowerCase()))
+                    .toList();
+        }
+
+        return List.of();
+    }
+}
@@ -0,0 +1,201 @@
+package dev.manere.velocitykits.limit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.velocitykits.metrics.Metrics;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket rate limiter per player and command group.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} updated with compare-and-set, so acquiring never takes a lock.
+ * Limits are configured under {@code rate-limits}; the first permission tier the player has wins, falling back to {@code default}.
+ */
+public class RateLimiter implements Listener {
+    /**
+     * Tokens are stored in thousandths so refill rates below one per second still work with integer math.
+     */
+    private static final long SCALE = 1000;
+    /* Monotonic, a wall clock stepped back by NTP would otherwise stop every refill until it catches up. */
+    private static final long EPOCH = System.nanoTime();
+    private static final int TIME_BITS = 42;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private static final Map<Key, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private static final Limit FALLBACK = new Limit(5, 2);
+
+    private static List<Tier> tiers = List.of();
+    private static Map<Group, Limit> defaults = Map.of();
+
+    /**
+     * Command groups that are limited separately.
+     */
+    public enum Group {
+        KIT_LOAD("kit-load", Metrics.Counter.RATE_LIMITED_KIT_LOAD),
+        KIT_EDIT("kit-edit", Metrics.Counter.RATE_LIMITED_KIT_EDIT);
+
+        private final String path;
+        private final Metrics.Counter rejections;
+
+        Group(String path, Metrics.Counter rejections) {
+            this.path = path;
+            this.rejections = rejections;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        /**
+         * @return The counter of requests rejected in this group.
+         */
+        public Metrics.Counter rejections() {
+            return rejections;
+        }
+    }
+
+    /**
+     * @param capacity        The burst size.
+     * @param refillPerSecond The sustained rate.
+     */
+    public record Limit(double capacity, double refillPerSecond) {
+
+    }
+
+    private record Tier(String permission, Map<Group, Limit> limits) {
+
+    }
+
+    private record Key(UUID player, Group group) {
+
+    }
+
+    private static final class Bucket {
+        /* Upper 22 bits: tokens * SCALE, lower 42 bits: last refill in millis relative to EPOCH. */
+        private final AtomicLong state;
+        private final Limit limit;
+
+        private Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.state = new AtomicLong(pack((long) (limit.capacity() * SCALE), now));
+        }
+    }
+
+    public static void of() {
+        ConfigurationSection section = Utils.plugin().getConfig().getConfigurationSection("rate-limits");
+        buckets.clear();
+
+        Map<Group, Limit> loadedDefaults = new EnumMap<>(Group.class);
+        for (Group group : Group.values()) {
+            loadedDefaults.put(group, section == null
+                    ? FALLBACK
+                    : limit(section.getConfigurationSection("default." + group.path()), FALLBACK));
+        }
+        defaults = loadedDefaults;
+
+        if (section == null) return;
+
+        // A list of maps, permission nodes contain dots and can't be used as section keys.
+        List<Tier> loaded = new ArrayList<>();
+        for (Map<?, ?> entry : section.getMapList("permissions")) {
+            Object permission = entry.get("permission");
+            if (permission == null) continue;
+
+            Map<Group, Limit> limits = new EnumMap<>(Group.class);
+            for (Group group : Group.values()) {
+                limits.put(group, entry.get(group.path()) instanceof Map<?, ?> limit
+                        ? limit(limit, defaults.get(group))
+                        : defaults.get(group));
+            }
+
+            loaded.add(new Tier(permission.toString(), limits));
+        }
+
+        tiers = List.copyOf(loaded);
+    }
+
+    /**
+     * Takes one token from the player's bucket for the group.
+     *
+     * @return Whether the request may go through. Rejections are counted per group in {@link Group#rejections()}.
+     */
+    public static boolean tryAcquire(Player player, Group group) {
+        Bucket bucket = buckets.computeIfAbsent(new Key(player.getUniqueId(), group),
+                key -> new Bucket(limit(player, group), now()));
+
+        while (true) {
+            long current = bucket.state.get();
+            long tokens = current >>> TIME_BITS;
+            long last = current & TIME_MASK;
+
+            // Another thread may have stored a later refill time since this one read the clock, time never goes back.
+            long now = Math.max(now(), last);
+
+            long refilled = Math.min((long) (bucket.limit.capacity() * SCALE),
+                    tokens + (long) ((now - last) * bucket.limit.refillPerSecond()));
+
+            if (refilled < SCALE) {
+                Metrics.increment(group.rejections());
+                return false;
+            }
+
+            if (bucket.state.compareAndSet(current, pack(refilled - SCALE, now))) {
+                return true;
+            }
+        }
+    }
+
+    private static Limit limit(Player player, Group group) {
+        for (Tier tier : tiers) {
+            if (player.hasPermission(tier.permission())) {
+                return tier.limits().get(group);
+            }
+        }
+
+        return defaults.getOrDefault(group, FALLBACK);
+    }
+
+    private static Limit limit(ConfigurationSection section, Limit fallback) {
+        if (section == null) return fallback;
+
+        return limit(section.getDouble("capacity", fallback.capacity()),
+                section.getDouble("refill-per-second", fallback.refillPerSecond()));
+    }
+
+    private static Limit limit(Map<?, ?> map, Limit fallback) {
+        return limit(map.get("capacity") instanceof Number capacity ? capacity.doubleValue() : fallback.capacity(),
+                map.get("refill-per-second") instanceof Number refill ? refill.doubleValue() : fallback.refillPerSecond());
+    }
+
+    private static Limit limit(double capacity, double refillPerSecond) {
+        // The packed state keeps at most 2^22 thousandths of a token.
+        return new Limit(Math.max(1, Math.min(4000, capacity)), Math.max(0.01, refillPerSecond));
+    }
+
+    /**
+     * @return Millis since the class was loaded.
+     */
+    private static long now() {
+        return ((System.nanoTime() - EPOCH) / 1_000_000) & TIME_MASK;
+    }
+
+    private static long pack(long tokens, long time) {
+        return (tokens << TIME_BITS) | (time & TIME_MASK);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        for (Group group : Group.values()) {
+            buckets.remove(new Key(event.getPlayer().getUniqueId(), group));
+        }
+    }
+}
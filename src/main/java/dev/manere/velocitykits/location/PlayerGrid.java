@@ -0,0 +1,155 @@
+package dev.manere.velocitykits.location;
+
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world uniform grid of online player positions. Cells are only touched when
+ * a player crosses a cell border, and nearby lookups only visit the cells overlapping
+ * the radius instead of every online player.
+ * <p>
+ * Safe to use from any thread. A player's position is only updated by the events of that player,
+ * which fire on the thread owning them, so updates of one player never race each other.
+ */
+public class PlayerGrid implements Listener {
+    private static final int CELL_SHIFT = 4; // 16 block cells
+
+    private static final Map<UUID, Map<Long, Set<Player>>> worlds = new ConcurrentHashMap<>();
+    private static final Map<UUID, Cell> cells = new ConcurrentHashMap<>();
+
+    private record Cell(UUID world, long key) {
+
+    }
+
+    /**
+     * A player within range of a lookup.
+     */
+    public record Nearby(Player player, double distance) {
+
+    }
+
+    public static void of(Server server) {
+        for (Player player : server.getOnlinePlayers()) {
+            update(player, player.getLocation());
+        }
+    }
+
+    /**
+     * @return Every other player within {@code radius} blocks of the player, in the same world.
+     */
+    public static List<Nearby> nearby(Player player, double radius) {
+        Location origin = player.getLocation();
+        Map<Long, Set<Player>> grid = worlds.get(origin.getWorld().getUID());
+
+        if (grid == null) return List.of();
+
+        int reach = (int) Math.ceil(radius);
+        int minX = (origin.getBlockX() - reach) >> CELL_SHIFT;
+        int maxX = (origin.getBlockX() + reach) >> CELL_SHIFT;
+        int minZ = (origin.getBlockZ() - reach) >> CELL_SHIFT;
+        int maxZ = (origin.getBlockZ() + reach) >> CELL_SHIFT;
+        double radiusSquared = radius * radius;
+
+        List<Nearby> list = new ArrayList<>();
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                Set<Player> cell = grid.get(key(x, z));
+                if (cell == null) continue;
+
+                for (Player target : cell) {
+                    if (target == player) continue;
+
+                    double distanceSquared = target.getLocation().distanceSquared(origin);
+                    if (distanceSquared <= radiusSquared) {
+                        list.add(new Nearby(target, Math.sqrt(distanceSquared)));
+                    }
+                }
+            }
+        }
+
+        return list;
+    }
+
+    private static void update(Player player, Location location) {
+        Cell next = new Cell(location.getWorld().getUID(), key(location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT));
+        Cell current = cells.get(player.getUniqueId());
+
+        if (next.equals(current)) return;
+
+        remove(player);
+
+        // Adding inside compute, so a concurrent remove can't drop the cell right after it was looked up.
+        worlds.computeIfAbsent(next.world(), world -> new ConcurrentHashMap<>())
+                .compute(next.key(), (key, cell) -> {
+                    Set<Player> players = cell == null ? ConcurrentHashMap.newKeySet() : cell;
+                    players.add(player);
+                    return players;
+                });
+        cells.put(player.getUniqueId(), next);
+    }
+
+    private static void remove(Player player) {
+        Cell current = cells.remove(player.getUniqueId());
+        if (current == null) return;
+
+        Map<Long, Set<Player>> grid = worlds.get(current.world());
+        if (grid == null) return;
+
+        grid.computeIfPresent(current.key(), (key, cell) -> {
+            cell.remove(player);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+
+        if (from.getBlockX() >> CELL_SHIFT == to.getBlockX() >> CELL_SHIFT
+                && from.getBlockZ() >> CELL_SHIFT == to.getBlockZ() >> CELL_SHIFT
+                && from.getWorld() == to.getWorld()) {
+            return;
+        }
+
+        update(event.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        update(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+}
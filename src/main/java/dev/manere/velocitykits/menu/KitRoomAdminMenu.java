@@ -3,8 +3,8 @@ package dev.manere.velocitykits.menu;
 import dev.manere.utils.item.ItemBuilder;
 import dev.manere.utils.menu.Button;
 import dev.manere.utils.registration.Registrar;
-import dev.manere.utils.scheduler.Schedulers;
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
 import dev.manere.velocitykits.storage.room.KitRoom;
 import dev.manere.velocitykits.storage.room.KitRoomCategory;
 import net.kyori.adventure.text.Component;
@@ -83,7 +83,7 @@ public class KitRoomAdminMenu implements Menu<dev.manere.utils.menu.normal.Menu>
             player.sendActionBar(TextStyle.color("<#ff0000>An error has occurred. Failed to add items."));
         }
 
-        Schedulers.async().execute(task -> HandlerList.unregisterAll(this), 10);
+        PluginExecutors.laterAsync(() -> HandlerList.unregisterAll(this), 10);
     }
 
     @NotNull
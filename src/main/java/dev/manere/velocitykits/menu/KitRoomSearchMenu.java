@@ -0,0 +1,85 @@
+package dev.manere.velocitykits.menu;
+
+import dev.manere.utils.item.ItemBuilder;
+import dev.manere.utils.menu.Button;
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.storage.search.ItemIndex;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class KitRoomSearchMenu implements Menu<dev.manere.utils.menu.normal.Menu> {
+    private final dev.manere.utils.menu.normal.Menu menuBuilder;
+    private final String term;
+
+    public KitRoomSearchMenu(String term) {
+        this.menuBuilder = dev.manere.utils.menu.normal.Menu.menu(TextStyle.color("Kit Room Search: " + ItemIndex.normalize(term)), 54);
+        this.term = term;
+
+        init();
+    }
+
+    @Override
+    public void init() {
+        List<ItemIndex.RoomSlot> results = ItemIndex.roomSlots(term);
+
+        int index = 0;
+        for (ItemIndex.RoomSlot result : results) {
+            if (index >= 45) break;
+
+            ItemStack item = ItemIndex.roomItem(result);
+            if (item == null) continue;
+
+            button(index++, Button.button()
+                    .item(ItemBuilder.item(item))
+                    .onClick(event -> {
+                        /* Do nothing, same as the kit room itself */
+                    }));
+        }
+
+        List<Integer> border = new ArrayList<>(List.of(46, 47, 48, 49, 50, 51, 52));
+
+        border.forEach(slot -> {
+            if (this.menuBuilder.button(slot) == null) {
+                button(slot, Button.button()
+                        .item(ItemBuilder.item(Material.BLACK_STAINED_GLASS_PANE)
+                                .name(TextStyle.color(" ")))
+                        .onClick(event -> event.setCancelled(true)));
+            }
+        });
+
+        button(45, Button.button()
+                .item(ItemBuilder.item(Material.OAK_DOOR)
+                        .name(TextStyle.color("<red>Back to Kit Room")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    Player player = (Player) event.getWhoClicked();
+
+                    player.performCommand("kitroom");
+                }));
+
+        button(53, Button.button()
+                .item(ItemBuilder.item(Material.BARRIER)
+                        .name(TextStyle.color("<#579af7>Close Menu")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    Player player = (Player) event.getWhoClicked();
+
+                    player.closeInventory();
+                }));
+    }
+
+    public boolean empty() {
+        return ItemIndex.roomSlots(term).isEmpty();
+    }
+
+    @Override
+    public dev.manere.utils.menu.normal.Menu builder() {
+        return this.menuBuilder;
+    }
+}
@@ -3,6 +3,8 @@ package dev.manere.velocitykits.menu;
 import dev.manere.utils.item.ItemBuilder;
 import dev.manere.utils.menu.Button;
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.storage.kit.KitCache;
+import dev.manere.velocitykits.storage.kit.KitSlots;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -10,27 +12,42 @@ import org.bukkit.inventory.ItemFlag;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class MainMenu implements Menu<dev.manere.utils.menu.normal.Menu> {
+    /* Spread out layout for up to 8 kits, rows of 7 once players have more. */
+    private static final int[] SPREAD_SLOTS = {10, 12, 14, 16, 28, 30, 32, 34};
+    private static final int[] ROW_SLOTS = {
+            10, 11, 12, 13, 14, 15, 16,
+            19, 20, 21, 22, 23, 24, 25,
+            28, 29, 30, 31, 32, 33, 34,
+            37, 38, 39, 40, 41, 42, 43
+    };
+
     private final dev.manere.utils.menu.normal.Menu menuBuilder;
 
-    public MainMenu() {
+    public MainMenu(Player player) {
         this.menuBuilder = dev.manere.utils.menu.normal.Menu.menu(TextStyle.color("Kits"), 54);
 
+        init(player);
+    }
+
+    @Override
+    public void init(Player player) {
+        int count = KitSlots.count(player);
+        int[] slots = count <= SPREAD_SLOTS.length ? SPREAD_SLOTS : ROW_SLOTS;
+        Set<Integer> saved = KitCache.saved(player.getUniqueId().toString());
+
+        for (int number = 1; number <= count; number++) {
+            kit(slots[number - 1], "<#579af7>Kit " + number, "<#91bdfa>/k" + number + ", /kit" + number, number,
+                    saved != null && !saved.contains(number));
+        }
+
         init();
     }
 
     @Override
     public void init() {
-        kit(10, "<#579af7>Kit 1", "<#91bdfa>/k1, /kit1", 1);
-        kit(12, "<#579af7>Kit 2", "<#91bdfa>/k2, /kit2", 2);
-        kit(14, "<#579af7>Kit 3", "<#91bdfa>/k3, /kit3", 3);
-        kit(16, "<#579af7>Kit 4", "<#91bdfa>/k4, /kit4", 4);
-        kit(28, "<#579af7>Kit 5", "<#91bdfa>/k5, /kit5", 5);
-        kit(30, "<#579af7>Kit 6", "<#91bdfa>/k6, /kit6", 6);
-        kit(32, "<#579af7>Kit 7", "<#91bdfa>/k7, /kit7", 7);
-        kit(34, "<#579af7>Kit 8", "<#91bdfa>/k8, /kit8", 8);
-
         List<Integer> border = new ArrayList<>(List.of(
                 0, 1, 2, 3, 4, 5, 6 , 7, 8, 9, 17, 18, 20, 22, 24, 26, 27, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44
         ));
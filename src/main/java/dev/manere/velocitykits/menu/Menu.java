@@ -3,6 +3,9 @@ package dev.manere.velocitykits.menu;
 import dev.manere.utils.item.ItemBuilder;
 import dev.manere.utils.menu.Button;
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.limit.RateLimiter;
+import dev.manere.velocitykits.metrics.KitEvents;
+import dev.manere.velocitykits.metrics.Metrics;
 import dev.manere.velocitykits.menu.editing.KitEditorMenu;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -17,8 +20,20 @@ import org.jetbrains.annotations.Nullable;
 @SuppressWarnings("BukkitListenerImplemented")
 public interface Menu<T extends InventoryHolder> {
     default void open(Player player) {
+        KitEvents.MenuOpen event = new KitEvents.MenuOpen();
+        event.begin();
+        long start = Metrics.start();
+
         dev.manere.utils.menu.normal.Menu builder = (dev.manere.utils.menu.normal.Menu) builder();
         builder.open(player);
+
+        Metrics.increment(Metrics.Counter.MENU_OPENS);
+        Metrics.record(Metrics.Timer.MENU_OPEN, start);
+
+        if (event.shouldCommit()) {
+            event.menu = getClass().getSimpleName();
+            event.commit();
+        }
     }
 
     @Nullable
@@ -42,10 +57,14 @@ public interface Menu<T extends InventoryHolder> {
     }
 
     default void kit(int slot, String kitName, String commands, int number) {
+        kit(slot, kitName, commands, number, false);
+    }
+
+    default void kit(int slot, String kitName, String commands, int number, boolean empty) {
         button(slot, Button.button()
-                .item(ItemBuilder.item(Material.CHEST)
+                .item(ItemBuilder.item(empty ? Material.ENDER_CHEST : Material.CHEST)
                         .name(TextStyle.color(kitName))
-                        .lore(TextStyle.color(" <white>Left Click to load, "),
+                        .lore(TextStyle.color(empty ? " <gray>Empty, Right Click to create. " : " <white>Left Click to load, "),
                                 TextStyle.color(" <white>Right Click to edit. "),
                                 TextStyle.color(" "), TextStyle.color(commands)))
                 .onClick(event -> {
@@ -60,6 +79,12 @@ public interface Menu<T extends InventoryHolder> {
                         }
                         case RIGHT -> {
                             event.setCancelled(true);
+
+                            if (!RateLimiter.tryAcquire(player, RateLimiter.Group.KIT_EDIT)) {
+                                player.sendActionBar(TextStyle.color("<#ff0000>You're opening kits too quickly!"));
+                                return;
+                            }
+
                             new KitEditorMenu(player, number).open(player);
                         }
                     }
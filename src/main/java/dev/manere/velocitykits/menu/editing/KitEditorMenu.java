@@ -1,12 +1,14 @@
 package dev.manere.velocitykits.menu.editing;
 
 import dev.manere.utils.item.ItemBuilder;
+import dev.manere.utils.library.Utils;
 import dev.manere.utils.menu.Button;
 import dev.manere.utils.menu.normal.Menu;
 import dev.manere.utils.registration.Registrar;
-import dev.manere.utils.scheduler.Schedulers;
 import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
 import dev.manere.velocitykits.storage.kit.Kit;
+import dev.manere.velocitykits.storage.kit.KitHistory;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -17,10 +19,18 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.logging.Level;
 
 public class KitEditorMenu implements dev.manere.velocitykits.menu.Menu<Menu>, Listener {
     private final dev.manere.utils.menu.normal.Menu menuBuilder;
     private final int kitNumber;
+
+    /* Only a kit that was loaded into the editor may be saved, otherwise closing would wipe it. */
+    private volatile boolean loaded;
+
+    /* The version the editor was filled from, a save fails instead of overwriting a change made while it was open. */
+    private volatile long expectedVersion;
+
     public KitEditorMenu(Player player, int kitNumber) {
         this.menuBuilder = dev.manere.utils.menu.normal.Menu.menu(TextStyle.color("Kit Editor"), 54);
         this.kitNumber = kitNumber;
@@ -31,12 +41,21 @@ public class KitEditorMenu implements dev.manere.velocitykits.menu.Menu<Menu>, L
 
     @Override
     public void init(Player player) {
-        Schedulers.sync().execute(task -> Kit.contentsAsync(player, kitNumber, kitContents -> {
+        PluginExecutors.later(player, () -> Kit.snapshotFuture(player.getUniqueId().toString(), kitNumber).whenCompleteAsync((snapshot, throwable) -> {
+            if (throwable != null) {
+                player.sendActionBar(TextStyle.color("<#ff0000>Kits are unavailable right now, please try again soon."));
+                player.closeInventory();
+                return;
+            }
+
             for (int slot = 0; slot < 41; slot++) {
-                ItemStack item = kitContents.getOrDefault(slot, new ItemStack(Material.AIR));
+                ItemStack item = snapshot.contents().getOrDefault(slot, new ItemStack(Material.AIR));
                 builder().getInventory().setItem(slot, item);
             }
-        }), 1);
+
+            expectedVersion = snapshot.version();
+            loaded = true;
+        }, PluginExecutors.entity(player)), 1);
 
         List<Integer> border = new ArrayList<>(List.of(
                 46, 47, 48, 49, 50, 51, 52, 53
@@ -101,6 +120,19 @@ public class KitEditorMenu implements dev.manere.velocitykits.menu.Menu<Menu>, L
                     player.sendActionBar(TextStyle.color("<#00ff00>You have cleared/reset your kit."));
                 }));
 
+        if (KitHistory.enabled()) {
+            button(49, Button.button()
+                    .item(ItemBuilder.item(Material.CLOCK)
+                            .name(TextStyle.color("<#579af7>Kit History")))
+                    .onClick(event -> {
+                        event.setCancelled(true);
+
+                        // Closing saves the kit first, so the history ends with what is in the editor.
+                        player.closeInventory();
+                        KitHistoryMenu.open(player, player.getUniqueId().toString(), kitNumber);
+                    }));
+        }
+
         button(50, Button.button()
                 .item(ItemBuilder.item(Material.CHEST)
                         .name(TextStyle.color("<#579af7>Import Inventory to Kit")))
@@ -140,7 +172,10 @@ public class KitEditorMenu implements dev.manere.velocitykits.menu.Menu<Menu>, L
         Inventory eventInventory = event.getInventory();
         Player player = (Player) event.getPlayer();
 
-        player.sendActionBar(TextStyle.color("<#00ff00>Kit saved successfully!"));
+        if (!loaded) {
+            PluginExecutors.laterAsync(() -> HandlerList.unregisterAll(this), 10);
+            return;
+        }
 
         Map<Integer, ItemStack> contents = new HashMap<>();
         for (int i = 0; i < 41; i++) {
@@ -149,8 +184,19 @@ public class KitEditorMenu implements dev.manere.velocitykits.menu.Menu<Menu>, L
             contents.put(i, Objects.requireNonNullElseGet(stack, () -> new ItemStack(Material.AIR)));
         }
 
-        Kit.saveAsync(player, kitNumber, contents);
+        Kit.saveAsync(player, kitNumber, contents, expectedVersion).whenCompleteAsync((result, throwable) -> {
+            if (throwable != null) {
+                Utils.plugin().getLogger().log(Level.SEVERE, "Failed to save kit " + kitNumber + " of " + player.getName(), throwable);
+                player.sendActionBar(TextStyle.color("<#ff0000>Your kit could not be saved, please try again."));
+            } else if (result.spooled()) {
+                player.sendActionBar(TextStyle.color("<#00ff00>Kit saved! It will be synced once the database is back."));
+            } else if (result.saved()) {
+                player.sendActionBar(TextStyle.color("<#00ff00>Kit saved successfully!"));
+            } else {
+                player.sendActionBar(TextStyle.color("<#ff0000>That kit was changed on another server, reopen it and try again."));
+            }
+        }, PluginExecutors.entity(player));
 
-        Schedulers.async().execute(task -> HandlerList.unregisterAll(this), 10);
+        PluginExecutors.laterAsync(() -> HandlerList.unregisterAll(this), 10);
     }
 }
@@ -0,0 +1,127 @@
+package dev.manere.velocitykits.menu.editing;
+
+import dev.manere.utils.item.ItemBuilder;
+import dev.manere.utils.menu.Button;
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.menu.Menu;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.storage.kit.KitHistory;
+import dev.manere.velocitykits.storage.kit.Revision;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Lists the revisions of a kit, newest first. Nothing is decoded until a revision is previewed or restored.
+ */
+public class KitHistoryMenu implements Menu<dev.manere.utils.menu.normal.Menu> {
+    private final dev.manere.utils.menu.normal.Menu menuBuilder;
+    private final String playerUUID;
+    private final int kitNumber;
+    private final List<Revision> revisions;
+
+    private KitHistoryMenu(String playerUUID, int kitNumber, List<Revision> revisions) {
+        this.menuBuilder = dev.manere.utils.menu.normal.Menu.menu(TextStyle.color("Kit <number> History"
+                .replaceAll("<number>", String.valueOf(kitNumber))), 54);
+        this.playerUUID = playerUUID;
+        this.kitNumber = kitNumber;
+        this.revisions = revisions;
+
+        init();
+    }
+
+    /**
+     * Loads the revisions, then opens the menu on the viewer's thread.
+     */
+    public static void open(Player viewer, String playerUUID, int kitNumber) {
+        KitHistory.revisions(playerUUID, kitNumber).whenCompleteAsync((revisions, throwable) -> {
+            if (throwable != null) {
+                viewer.sendActionBar(TextStyle.color("<#ff0000>Kits are unavailable right now, please try again soon."));
+                return;
+            }
+
+            if (revisions.isEmpty()) {
+                viewer.sendActionBar(TextStyle.color("<#ff0000>That kit has no history yet."));
+                return;
+            }
+
+            new KitHistoryMenu(playerUUID, kitNumber, revisions).open(viewer);
+        }, PluginExecutors.entity(viewer));
+    }
+
+    @Override
+    public void init() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        for (int index = 0; index < Math.min(45, revisions.size()); index++) {
+            Revision revision = revisions.get(index);
+            String changes = revision.full()
+                    ? " <gray>Full kit, <white><changes> <gray>items "
+                    : " <white><changes> <gray>slots changed ";
+
+            button(index, Button.button()
+                    .item(ItemBuilder.item(revision.full() ? Material.BOOK : Material.PAPER)
+                            .name(TextStyle.color(index == 0 ? "<#579af7>Latest Revision" : "<#579af7>Revision -<number>"
+                                    .replaceAll("<number>", String.valueOf(index))))
+                            .lore(TextStyle.color(" <white><date> ".replaceAll("<date>", format.format(new Date(revision.savedAt())))),
+                                    TextStyle.color(changes.replaceAll("<changes>", String.valueOf(revision.changes()))),
+                                    TextStyle.color(" "),
+                                    TextStyle.color(" <white>Left Click to preview, "),
+                                    TextStyle.color(" <white>Right Click to restore. ")))
+                    .onClick(event -> {
+                        event.setCancelled(true);
+                        Player player = (Player) event.getWhoClicked();
+
+                        switch (event.getClick()) {
+                            case LEFT -> KitRevisionMenu.open(player, playerUUID, kitNumber, revision);
+                            case RIGHT -> {
+                                player.closeInventory();
+                                KitRevisionMenu.restore(player, playerUUID, kitNumber, revision);
+                            }
+                        }
+                    }));
+        }
+
+        List<Integer> border = new ArrayList<>(List.of(46, 47, 48, 49, 50, 51, 52));
+
+        border.forEach(slot -> {
+            if (this.menuBuilder.button(slot) == null) {
+                button(slot, Button.button()
+                        .item(ItemBuilder.item(Material.BLACK_STAINED_GLASS_PANE)
+                                .name(TextStyle.color(" ")))
+                        .onClick(event -> event.setCancelled(true)));
+            }
+        });
+
+        button(45, Button.button()
+                .item(ItemBuilder.item(Material.OAK_DOOR)
+                        .name(TextStyle.color("<red>Exit")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    Player player = (Player) event.getWhoClicked();
+
+                    player.performCommand("k");
+                }));
+
+        button(53, Button.button()
+                .item(ItemBuilder.item(Material.BARRIER)
+                        .name(TextStyle.color("<#579af7>Close Menu")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    Player player = (Player) event.getWhoClicked();
+
+                    player.closeInventory();
+                }));
+    }
+
+    @Override
+    public dev.manere.utils.menu.normal.Menu builder() {
+        return this.menuBuilder;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.manere.velocitykits.menu.editing;
+
+import dev.manere.utils.item.ItemBuilder;
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.menu.Button;
+import dev.manere.utils.text.color.TextStyle;
+import dev.manere.velocitykits.menu.Menu;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.storage.kit.KitHistory;
+import dev.manere.velocitykits.storage.kit.Revision;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Read-only preview of a kit as it was at one revision.
+ */
+public class KitRevisionMenu implements Menu<dev.manere.utils.menu.normal.Menu> {
+    private final dev.manere.utils.menu.normal.Menu menuBuilder;
+    private final String playerUUID;
+    private final int kitNumber;
+    private final Revision revision;
+    private final Map<Integer, ItemStack> contents;
+
+    private KitRevisionMenu(String playerUUID, int kitNumber, Revision revision, Map<Integer, ItemStack> contents) {
+        this.menuBuilder = dev.manere.utils.menu.normal.Menu.menu(TextStyle.color("Kit <number> Revision Preview"
+                .replaceAll("<number>", String.valueOf(kitNumber))), 54);
+        this.playerUUID = playerUUID;
+        this.kitNumber = kitNumber;
+        this.revision = revision;
+        this.contents = contents;
+
+        init();
+    }
+
+    /**
+     * Rebuilds the revision, then opens the preview on the viewer's thread.
+     */
+    public static void open(Player viewer, String playerUUID, int kitNumber, Revision revision) {
+        KitHistory.contents(playerUUID, kitNumber, revision.id()).whenCompleteAsync((contents, throwable) -> {
+            if (throwable != null) {
+                viewer.sendActionBar(TextStyle.color("<#ff0000>Kits are unavailable right now, please try again soon."));
+                return;
+            }
+
+            if (contents == null) {
+                viewer.sendActionBar(TextStyle.color("<#ff0000>That revision was pruned, reopen the history."));
+                return;
+            }
+
+            new KitRevisionMenu(playerUUID, kitNumber, revision, contents).open(viewer);
+        }, PluginExecutors.entity(viewer));
+    }
+
+    public static void restore(Player viewer, String playerUUID, int kitNumber, Revision revision) {
+        KitHistory.restore(playerUUID, kitNumber, revision.id()).whenCompleteAsync((result, throwable) -> {
+            if (throwable != null) {
+                Utils.plugin().getLogger().log(Level.SEVERE, "Failed to restore a revision of kit " + kitNumber + " of " + playerUUID, throwable);
+                viewer.sendActionBar(TextStyle.color("<#ff0000>The kit could not be restored, please try again."));
+            } else if (result == null) {
+                viewer.sendActionBar(TextStyle.color("<#ff0000>That revision was pruned, reopen the history."));
+            } else if (result.spooled()) {
+                viewer.sendActionBar(TextStyle.color("<#00ff00>Kit restored! It will be synced once the database is back."));
+            } else if (result.saved()) {
+                viewer.sendActionBar(TextStyle.color("<#00ff00>Kit restored successfully!"));
+            } else {
+                viewer.sendActionBar(TextStyle.color("<#ff0000>That kit was changed on another server, try again."));
+            }
+        }, PluginExecutors.entity(viewer));
+    }
+
+    @Override
+    public void init() {
+        contents.forEach((slot, item) -> {
+            if (slot < 0 || slot >= 41) return;
+
+            button(slot, Button.button()
+                    .item(ItemBuilder.item(item))
+                    .onClick(event -> event.setCancelled(true)));
+        });
+
+        List<Integer> border = new ArrayList<>(List.of(46, 47, 48, 50, 51, 52));
+
+        border.forEach(slot -> {
+            if (this.menuBuilder.button(slot) == null) {
+                button(slot, Button.button()
+                        .item(ItemBuilder.item(Material.BLACK_STAINED_GLASS_PANE)
+                                .name(TextStyle.color(" ")))
+                        .onClick(event -> event.setCancelled(true)));
+            }
+        });
+
+        List<Integer> armorAndHand = new ArrayList<>(List.of(
+                41, 42, 43, 44
+        ));
+
+        armorAndHand.forEach(slot -> {
+            if (this.menuBuilder.button(slot) == null) {
+                button(slot, Button.button()
+                        .item(ItemBuilder.item(Material.BLACK_STAINED_GLASS_PANE)
+                                .name(TextStyle.color(" <#579af7>← ARMOR + OFFHAND")))
+                        .onClick(event -> event.setCancelled(true)));
+            }
+        });
+
+        button(45, Button.button()
+                .item(ItemBuilder.item(Material.OAK_DOOR)
+                        .name(TextStyle.color("<red>Back to History")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    KitHistoryMenu.open((Player) event.getWhoClicked(), playerUUID, kitNumber);
+                }));
+
+        button(49, Button.button()
+                .item(ItemBuilder.item(Material.LIME_DYE)
+                        .name(TextStyle.color("<#00ff00>Restore this Revision")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    Player player = (Player) event.getWhoClicked();
+
+                    player.closeInventory();
+                    restore(player, playerUUID, kitNumber, revision);
+                }));
+
+        button(53, Button.button()
+                .item(ItemBuilder.item(Material.BARRIER)
+                        .name(TextStyle.color("<#579af7>Close Menu")))
+                .onClick(event -> {
+                    event.setCancelled(true);
+
+                    Player player = (Player) event.getWhoClicked();
+
+                    player.closeInventory();
+                }));
+    }
+
+    @Override
+    public dev.manere.utils.menu.normal.Menu builder() {
+        return this.menuBuilder;
+    }
+}
@@ -0,0 +1,142 @@
+package dev.manere.velocitykits.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events of the kit lifecycle, so recordings attribute time to VelocityKits instead of scheduler lambdas.
+ * <p>
+ * Every event is disabled by default, which makes them close to free: enable the {@code velocitykits.*} events in a
+ * JFR settings file or with {@code jfr configure}. Players are identified by the hash of their UUID only.
+ * Events are begun where the operation starts and only filled in and committed if {@link Event#shouldCommit()}.
+ */
+public class KitEvents {
+    @Name("velocitykits.KitLoad")
+    @Label("Kit Load")
+    @Category("VelocityKits")
+    @Description("A kit read on a storage lane, from the cache or storage.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class Load extends Event {
+        @Label("Player UUID Hash")
+        public int player;
+
+        @Label("Kit Number")
+        public int kitNumber;
+
+        @Label("Stored Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Cache Hit")
+        public boolean cacheHit;
+
+        @Label("Queue Wait")
+        @Timespan
+        public long queueWait;
+
+        @Label("Storage")
+        @Timespan
+        public long storage;
+
+        @Label("Decode")
+        @Timespan
+        public long decode;
+    }
+
+    @Name("velocitykits.KitDecode")
+    @Label("Kit Decode")
+    @Category("VelocityKits")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class Decode extends Event {
+        @Label("Player UUID Hash")
+        public int player;
+
+        @Label("Kit Number")
+        public int kitNumber;
+
+        @Label("Stored Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("velocitykits.KitApply")
+    @Label("Kit Apply")
+    @Category("VelocityKits")
+    @Description("Putting a loaded kit into the player's inventory on the main thread.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class Apply extends Event {
+        @Label("Player UUID Hash")
+        public int player;
+
+        @Label("Kit Number")
+        public int kitNumber;
+
+        @Label("Items")
+        public int items;
+    }
+
+    @Name("velocitykits.KitSave")
+    @Label("Kit Save")
+    @Category("VelocityKits")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class Save extends Event {
+        @Label("Player UUID Hash")
+        public int player;
+
+        @Label("Kit Number")
+        public int kitNumber;
+
+        @Label("Stored Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Result")
+        public String result;
+
+        @Label("Encode")
+        @Timespan
+        public long encode;
+
+        @Label("Storage")
+        @Timespan
+        public long storage;
+    }
+
+    @Name("velocitykits.KitDelete")
+    @Label("Kit Delete")
+    @Category("VelocityKits")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class Delete extends Event {
+        @Label("Player UUID Hash")
+        public int player;
+
+        @Label("Kit Number")
+        public int kitNumber;
+    }
+
+    @Name("velocitykits.MenuOpen")
+    @Label("Menu Open")
+    @Category("VelocityKits")
+    @Enabled(false)
+    public static class MenuOpen extends Event {
+        @Label("Menu")
+        public String menu;
+    }
+
+    @Name("velocitykits.KitRoomRead")
+    @Label("Kit Room Read")
+    @Category("VelocityKits")
+    @Description("Reloading and decoding a kit room category from kitroom.yml.")
+    @Enabled(false)
+    public static class KitRoomRead extends Event {
+        @Label("Category")
+        public String category;
+
+        @Label("Items")
+        public int items;
+    }
+}
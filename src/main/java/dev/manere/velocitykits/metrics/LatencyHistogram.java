@@ -0,0 +1,78 @@
+package dev.manere.velocitykits.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with power-of-two microsecond buckets, from 1µs up to about 17 seconds.
+ * <p>
+ * Recording is a bucket lookup by leading zeros plus two atomic increments, it never locks or allocates,
+ * so it can be called from the main thread and every storage lane at once. Percentiles are read
+ * as the upper bound of the bucket they fall in, which is precise to a factor of two.
+ */
+public class LatencyHistogram {
+    /**
+     * Bucket {@code i} counts latencies of at most {@code 2^i} microseconds, the last one everything above.
+     */
+    static final int BUCKETS = 26;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+
+        counts.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+        sumNanos.add(Math.max(0, nanos));
+    }
+
+    /**
+     * A consistent enough copy for reporting, buckets recorded while copying may or may not be included.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+
+        return new Snapshot(copy, count, sumNanos.sum());
+    }
+
+    /**
+     * @param counts   Non-cumulative counts per bucket.
+     * @param sumNanos The sum of every recorded latency.
+     */
+    public record Snapshot(long[] counts, long count, long sumNanos) {
+        public double meanMicros() {
+            return count == 0 ? 0 : sumNanos / 1000.0 / count;
+        }
+
+        /**
+         * @return The upper bound of the bucket holding the percentile, in microseconds.
+         */
+        public long percentileMicros(double percentile) {
+            if (count == 0) return 0;
+
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBoundMicros(i);
+            }
+
+            return upperBoundMicros(counts.length - 1);
+        }
+
+        /**
+         * @return The bucket's upper bound in microseconds, {@link Long#MAX_VALUE} for the overflow bucket.
+         */
+        public static long upperBoundMicros(int bucket) {
+            return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+        }
+    }
+}
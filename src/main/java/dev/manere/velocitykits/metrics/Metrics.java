@@ -0,0 +1,215 @@
+package dev.manere.velocitykits.metrics;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Latency and throughput of the kit operations, recorded without locks from any thread.
+ * <p>
+ * Shown by {@code /velocitykits stats}, and written in the Prometheus text format to the data folder
+ * every {@code metrics.prometheus.interval-seconds} when {@code metrics.prometheus.enabled} is set,
+ * for the node exporter's textfile collector to pick up.
+ */
+public class Metrics {
+    private static ScheduledTask task;
+    private static Path file;
+
+    /**
+     * The stages an operation spends its time in.
+     */
+    public enum Timer {
+        LOAD_QUEUE("load", "queue"),
+        LOAD_STORAGE("load", "storage"),
+        LOAD_DECODE("load", "decode"),
+        LOAD_APPLY("load", "apply"),
+        LOAD_TOTAL("load", "total"),
+        SAVE_QUEUE("save", "queue"),
+        SAVE_ENCODE("save", "encode"),
+        SAVE_STORAGE("save", "storage"),
+        DELETE_STORAGE("delete", "storage"),
+        KIT_ROOM_READ("kit_room", "read"),
+        MENU_OPEN("menu", "open");
+
+        private final String operation;
+        private final String stage;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Timer(String operation, String stage) {
+            this.operation = operation;
+            this.stage = stage;
+        }
+
+        public String operation() {
+            return operation;
+        }
+
+        public String stage() {
+            return stage;
+        }
+
+        public LatencyHistogram histogram() {
+            return histogram;
+        }
+    }
+
+    public enum Counter {
+        LOADS("operations", "load"),
+        SAVES("operations", "save"),
+        DELETES("operations", "delete"),
+        MENU_OPENS("operations", "menu_open"),
+        CACHE_HITS("cache", "hit"),
+        CACHE_MISSES("cache", "miss"),
+        SAVE_CONFLICTS("conflicts", "save"),
+        SAVES_SPOOLED("spooled", "save"),
+        LOAD_ERRORS("errors", "load"),
+        SAVE_ERRORS("errors", "save"),
+        DELETE_ERRORS("errors", "delete"),
+        HANDOFFS_SENT("handoffs", "sent"),
+        HANDOFFS_OVERSIZED("handoffs", "oversized"),
+        HANDOFFS_NO_CARRIER("handoffs", "no_carrier"),
+        RATE_LIMITED_KIT_LOAD("rate_limited", "kit_load"),
+        RATE_LIMITED_KIT_EDIT("rate_limited", "kit_edit");
+
+        private final String family;
+        private final String label;
+        private final LongAdder adder = new LongAdder();
+
+        Counter(String family, String label) {
+            this.family = family;
+            this.label = label;
+        }
+
+        public String family() {
+            return family;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public long value() {
+            return adder.sum();
+        }
+    }
+
+    public static void of() {
+        if (!Utils.plugin().getConfig().getBoolean("metrics.prometheus.enabled", false)) return;
+
+        file = Utils.plugin().getDataFolder().toPath()
+                .resolve(Utils.plugin().getConfig().getString("metrics.prometheus.file", "velocitykits.prom"));
+
+        long interval = Math.max(1, Utils.plugin().getConfig().getLong("metrics.prometheus.interval-seconds", 15)) * 20;
+        task = PluginExecutors.timerAsync(Metrics::export, interval, interval);
+    }
+
+    /**
+     * @return The current time to pass to {@link #record(Timer, long)} once the stage is done.
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @return The time the stage took in nanoseconds.
+     */
+    public static long record(Timer timer, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        timer.histogram.record(nanos);
+        return nanos;
+    }
+
+    public static void increment(Counter counter) {
+        counter.adder.increment();
+    }
+
+    /**
+     * @return The share of kit reads answered from the cache, {@code 0} before the first read.
+     */
+    public static double cacheHitRatio() {
+        long hits = Counter.CACHE_HITS.value();
+        long total = hits + Counter.CACHE_MISSES.value();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return Every metric in the Prometheus text exposition format.
+     */
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP velocitykits_stage_seconds Time kit operations spend per stage.\n");
+        out.append("# TYPE velocitykits_stage_seconds histogram\n");
+
+        for (Timer timer : Timer.values()) {
+            LatencyHistogram.Snapshot snapshot = timer.histogram.snapshot();
+            String labels = "operation=\"" + timer.operation + "\",stage=\"" + timer.stage + "\"";
+            long cumulative = 0;
+
+            for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+                cumulative += snapshot.counts()[i];
+                out.append("velocitykits_stage_seconds_bucket{").append(labels)
+                        .append(",le=\"").append(seconds(LatencyHistogram.Snapshot.upperBoundMicros(i) * 1000)).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+
+            out.append("velocitykits_stage_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ").append(snapshot.count()).append('\n');
+            out.append("velocitykits_stage_seconds_sum{").append(labels).append("} ").append(seconds(snapshot.sumNanos())).append('\n');
+            out.append("velocitykits_stage_seconds_count{").append(labels).append("} ").append(snapshot.count()).append('\n');
+        }
+
+        String family = null;
+        for (Counter counter : Counter.values()) {
+            if (!counter.family.equals(family)) {
+                family = counter.family;
+                out.append("# TYPE velocitykits_").append(family).append("_total counter\n");
+            }
+
+            String label = switch (counter.family) {
+                case "cache", "handoffs" -> "result";
+                case "rate_limited" -> "group";
+                default -> "operation";
+            };
+            out.append("velocitykits_").append(counter.family).append("_total{")
+                    .append(label).append("=\"").append(counter.label).append("\"} ")
+                    .append(counter.value()).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * Stops exporting after writing the file one last time.
+     */
+    public static void close() {
+        if (task == null) return;
+
+        task.cancel();
+        export();
+    }
+
+    /* Written next to the target and moved over it, so a scrape never reads half a file. */
+    private static void export() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Files.writeString(temp, prometheus(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Utils.plugin().getLogger().log(Level.WARNING, "Failed to write " + file.getFileName(), e);
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,75 @@
+package dev.manere.velocitykits.scheduler;
+
+import dev.manere.utils.library.Utils;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Executor} views of the server schedulers, for chaining {@link java.util.concurrent.CompletableFuture}s.
+ * <p>
+ * Built on the region-aware schedulers, which Paper runs on the main thread and Folia on the thread owning the region,
+ * so the same code runs on both. Work touching a player goes to {@link #entity(Entity)}, so kit loads in different regions
+ * run on different cores.
+ */
+public class PluginExecutors {
+    private static final long MILLIS_PER_TICK = 50;
+
+    private static final Executor ASYNC = runnable -> Bukkit.getAsyncScheduler().runNow(Utils.plugin(), task -> runnable.run());
+    private static final Executor SYNC = runnable -> Bukkit.getGlobalRegionScheduler().execute(Utils.plugin(), runnable);
+
+    /**
+     * @return An executor running tasks off the main thread, for storage I/O.
+     */
+    public static Executor async() {
+        return ASYNC;
+    }
+
+    /**
+     * @return An executor running tasks on the global region, the main thread on Paper. Only for work that isn't tied
+     * to a player or location, like replying to the console.
+     */
+    public static Executor sync() {
+        return SYNC;
+    }
+
+    /**
+     * @return An executor running tasks on the thread owning the entity, for touching players and their inventories.
+     * Tasks are dropped if the entity is removed first, like a player quitting.
+     */
+    public static Executor entity(Entity entity) {
+        return runnable -> entity.getScheduler().run(Utils.plugin(), task -> runnable.run(), null);
+    }
+
+    /**
+     * Runs the task on the entity's thread after the delay, dropped if the entity is removed first.
+     */
+    public static void later(Entity entity, Runnable runnable, long delayTicks) {
+        entity.getScheduler().runDelayed(Utils.plugin(), task -> runnable.run(), null, Math.max(1, delayTicks));
+    }
+
+    /**
+     * Runs the task off the main thread after the delay.
+     */
+    public static void laterAsync(Runnable runnable, long delayTicks) {
+        Bukkit.getAsyncScheduler().runDelayed(Utils.plugin(), task -> runnable.run(), delayTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Repeats the task on the global region, the main thread on Paper.
+     */
+    public static ScheduledTask timer(Runnable runnable, long delayTicks, long periodTicks) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(Utils.plugin(), task -> runnable.run(), Math.max(1, delayTicks), periodTicks);
+    }
+
+    /**
+     * Repeats the task off the main thread.
+     */
+    public static ScheduledTask timerAsync(Runnable runnable, long delayTicks, long periodTicks) {
+        return Bukkit.getAsyncScheduler().runAtFixedRate(Utils.plugin(), task -> runnable.run(),
+                delayTicks * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+}
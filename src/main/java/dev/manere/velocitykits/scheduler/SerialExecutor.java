@@ -0,0 +1,110 @@
+package dev.manere.velocitykits.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks one at a time in submission order on top of another executor, which only ever sees one task of this
+ * executor at a time. Used to keep storage lanes ordered when they run on virtual threads.
+ * <p>
+ * Every task holds a permit of the shared semaphore while it runs, bounding how many lanes do I/O at once.
+ */
+class SerialExecutor extends AbstractExecutorService {
+    private final Executor backing;
+    private final Semaphore permits;
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private boolean running;
+    private boolean shutdown;
+
+    SerialExecutor(Executor backing, Semaphore permits) {
+        this.backing = backing;
+        this.permits = permits;
+    }
+
+    @Override
+    public synchronized void execute(@NotNull Runnable task) {
+        if (shutdown) throw new RejectedExecutionException("The lane is shut down.");
+
+        tasks.add(task);
+
+        if (!running) {
+            running = true;
+            backing.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable task;
+
+            synchronized (this) {
+                task = tasks.poll();
+
+                if (task == null) {
+                    running = false;
+                    notifyAll();
+                    return;
+                }
+            }
+
+            permits.acquireUninterruptibly();
+
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, throwable);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+    }
+
+    @NotNull
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        shutdown = true;
+
+        List<Runnable> pending = List.copyOf(tasks);
+        tasks.clear();
+        return pending;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown && !running;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!isTerminated()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        return true;
+    }
+}
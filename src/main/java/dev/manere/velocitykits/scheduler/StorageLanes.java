@@ -0,0 +1,169 @@
+package dev.manere.velocitykits.scheduler;
+
+import dev.manere.utils.library.Utils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Striped single-threaded executors for storage work.
+ * <p>
+ * Every operation for a player is routed to the same lane, so a save followed by a load always runs in that order,
+ * while different players are spread over all lanes and run in parallel.
+ * <p>
+ * In {@link Mode#VIRTUAL} mode every lane runs its tasks on virtual threads, so lanes are cheap and a blocking
+ * database round trip doesn't hold an OS thread. A semaphore keeps the amount of storage calls running at once
+ * at the connection pool size, instead of letting hundreds of lanes wait on the pool.
+ * <p>
+ * Bulk work over every stored kit, like the startup warm-up, runs on its own {@link #background()} thread,
+ * never on a lane, so it can't hold up the players sharing that lane.
+ */
+public class StorageLanes {
+    private static final int VIRTUAL_LANES = 256;
+
+    private static List<ExecutorService> lanes = List.of();
+    private static ExecutorService background;
+    private static int maxConcurrent = 1;
+
+    public enum Mode {
+        /**
+         * One OS thread per lane.
+         */
+        PLATFORM,
+        /**
+         * Lanes on virtual threads, needs Java 21. Falls back to {@link #PLATFORM} on older runtimes.
+         */
+        VIRTUAL
+    }
+
+    /**
+     * @param count         The amount of lanes, {@code 0} or less for one per available core, or {@value VIRTUAL_LANES} with virtual threads.
+     * @param maxConcurrent How many storage calls may run at once with virtual threads.
+     */
+    public static void of(int count, Mode mode, int maxConcurrent) {
+        StorageLanes.maxConcurrent = Math.max(1, maxConcurrent);
+        lanes = create(count, mode, maxConcurrent);
+        background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VelocityKits Storage Background");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return How many storage calls may run at once, as configured.
+     */
+    public static int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Creates lanes without installing them, for benchmarks.
+     */
+    public static List<ExecutorService> create(int count, Mode mode, int maxConcurrent) {
+        if (mode == Mode.VIRTUAL) {
+            Executor virtual = virtualExecutor();
+
+            if (virtual != null) {
+                Semaphore permits = new Semaphore(Math.max(1, maxConcurrent));
+                int size = count > 0 ? count : VIRTUAL_LANES;
+
+                List<ExecutorService> created = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    created.add(new SerialExecutor(virtual, permits));
+                }
+
+                return List.copyOf(created);
+            }
+
+            Utils.plugin().getLogger().warning("Virtual threads need Java 21 or newer, running storage lanes on platform threads.");
+        }
+
+        int size = count > 0 ? count : Runtime.getRuntime().availableProcessors();
+        AtomicInteger index = new AtomicInteger();
+
+        List<ExecutorService> created = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            created.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "VelocityKits Storage Lane #" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+
+        return List.copyOf(created);
+    }
+
+    /**
+     * @return Whether this runtime has virtual threads.
+     */
+    public static boolean virtualThreadsSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /* Looked up reflectively, the plugin is compiled for Java 16. Preview builds without --enable-preview throw here too. */
+    @Nullable
+    private static Executor virtualExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The lane owning the player's storage operations.
+     */
+    public static Executor lane(String playerUUID) {
+        return lane(lanes, playerUUID);
+    }
+
+    /**
+     * @return The lane of the given ones owning the player's storage operations.
+     */
+    static <T> T lane(List<T> lanes, String playerUUID) {
+        return lanes.get(Math.floorMod(playerUUID.hashCode(), lanes.size()));
+    }
+
+    /**
+     * @return The executor for long-running bulk work that isn't tied to a single player.
+     */
+    public static Executor background() {
+        return background;
+    }
+
+    /**
+     * Stops accepting work and waits for every queued operation, so no save is lost on shutdown.
+     */
+    public static void close() {
+        // Bulk work can be redone on the next start, only lanes hold saves.
+        if (background != null) {
+            background.shutdownNow();
+        }
+
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+
+        for (ExecutorService lane : lanes) {
+            try {
+                if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                    Utils.plugin().getLogger().warning("A storage lane did not finish its queued operations in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Utils.plugin().getLogger().log(Level.WARNING, "Interrupted while waiting for storage lanes.", e);
+                return;
+            }
+        }
+    }
+}
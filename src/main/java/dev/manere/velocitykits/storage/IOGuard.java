@@ -0,0 +1,145 @@
+package dev.manere.velocitykits.storage;
+
+import dev.manere.utils.library.Utils;
+import org.bukkit.Bukkit;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Detects file and database I/O running on the main thread, where it stalls the tick.
+ * <p>
+ * Storage classes run their I/O through {@link #run} or {@link #call}. Off the main thread that is all it does,
+ * on it the call site outside the storage classes is recorded with its count and time, shown by {@code /velocitykits io}.
+ * {@code io-guard.mode} decides what else happens: {@code record} nothing, {@code warn} logs every call site once,
+ * and {@code strict} throws before the I/O runs, to find them fast on a test server.
+ * The {@code velocitykits.io-guard.strict} system property forces strict mode.
+ */
+public class IOGuard {
+    private static final String STORAGE_PACKAGE = "dev.manere.velocitykits.storage.";
+
+    private static final Map<Site, Stats> sites = new ConcurrentHashMap<>();
+
+    private static volatile Mode mode = Mode.WARN;
+
+    public enum Mode {
+        RECORD,
+        WARN,
+        STRICT
+    }
+
+    /**
+     * @param operation What kind of I/O ran, like {@code "kitroom.yml read"}.
+     * @param caller    The first frame outside the storage classes.
+     */
+    public record Site(String operation, String caller) {
+
+    }
+
+    public static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicBoolean warned = new AtomicBoolean();
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return nanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    public static void of() {
+        String configured = Utils.plugin().getConfig().getString("io-guard.mode", "warn");
+
+        try {
+            mode = Mode.valueOf(configured.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Utils.plugin().getLogger().warning("Unknown io-guard.mode '" + configured + "', using warn.");
+            mode = Mode.WARN;
+        }
+
+        if (Boolean.getBoolean("velocitykits.io-guard.strict")) {
+            mode = Mode.STRICT;
+        }
+    }
+
+    public static void run(String operation, Runnable io) {
+        call(operation, () -> {
+            io.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the I/O, recording it if this is the main thread.
+     *
+     * @throws IllegalStateException On the main thread in strict mode, before the I/O runs.
+     */
+    public static <T> T call(String operation, Supplier<T> io) {
+        if (!Bukkit.isPrimaryThread()) return io.get();
+
+        Site site = new Site(operation, caller());
+
+        if (mode == Mode.STRICT) {
+            throw new IllegalStateException(operation + " on the main thread, called from " + site.caller());
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            return io.get();
+        } finally {
+            record(site, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return Every recorded call site, the most time spent first.
+     */
+    public static List<Map.Entry<Site, Stats>> sites() {
+        return sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Site, Stats> entry) -> entry.getValue().totalNanos()).reversed())
+                .toList();
+    }
+
+    public static Mode mode() {
+        return mode;
+    }
+
+    private static void record(Site site, long nanos) {
+        Stats stats = sites.computeIfAbsent(site, ignored -> new Stats());
+
+        stats.count.increment();
+        stats.nanos.add(nanos);
+        stats.maxNanos.accumulateAndGet(nanos, Math::max);
+
+        if (mode == Mode.WARN && stats.warned.compareAndSet(false, true)) {
+            Utils.plugin().getLogger().warning(String.format(Locale.ROOT, "%s ran on the main thread for %.2fms, called from %s",
+                    site.operation(), nanos / 1_000_000.0, site.caller()));
+        }
+    }
+
+    /* Only walked on the main thread, which is already the slow path. */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith(STORAGE_PACKAGE))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,37 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Conversions between the storage formats used in Java and the binary MySQL columns:
+ * UUIDs as {@code BINARY(16)} and kit contents as the raw bytes behind their base64 form.
+ */
+public class BinaryColumns {
+    public static byte[] uuid(String uuid) {
+        UUID parsed = UUID.fromString(uuid);
+
+        return ByteBuffer.allocate(16)
+                .putLong(parsed.getMostSignificantBits())
+                .putLong(parsed.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String uuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    /**
+     * @param data Serialized contents, line breaks in the base64 are tolerated.
+     */
+    public static byte[] contents(String data) {
+        return Base64.getMimeDecoder().decode(data.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static String contents(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,27 @@
+package dev.manere.velocitykits.storage.kit;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Carries {@link KitHandoff} payloads from the server a player leaves to the server they join.
+ */
+public interface CacheTransport {
+    /**
+     * @param receiver Called with every payload another server sent, on any thread.
+     */
+    void setup(Receiver receiver);
+
+    /**
+     * Sends the payload of the player that is leaving. Called on the main thread.
+     *
+     * @return Whether the payload could be sent.
+     */
+    boolean send(Player player, byte[] payload);
+
+    void close();
+
+    @FunctionalInterface
+    interface Receiver {
+        void receive(byte[] payload);
+    }
+}
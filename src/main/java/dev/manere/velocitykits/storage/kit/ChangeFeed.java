@@ -0,0 +1,39 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.util.List;
+
+/**
+ * An append-only log of kit changes shared by every server using the same storage.
+ * Servers append what they saved and tail what the others saved, see {@link KitChanges}.
+ */
+public interface ChangeFeed {
+    void setup();
+
+    /**
+     * Records that the kit is now at the given version, {@code 0} meaning it was deleted.
+     *
+     * @param origin The server that made the change.
+     */
+    void append(String origin, String playerUUID, int kitNumber, long version);
+
+    /**
+     * @return The id of the latest change, {@code 0} if there is none.
+     */
+    long head();
+
+    /**
+     * @return At most {@code limit} changes with an id above {@code afterId}, oldest first.
+     */
+    List<Change> read(long afterId, int limit);
+
+    /**
+     * Drops changes appended before the given time, in millis.
+     */
+    void prune(long before);
+
+    void close();
+
+    record Change(long id, String origin, String playerUUID, int kitNumber, long version) {
+
+    }
+}
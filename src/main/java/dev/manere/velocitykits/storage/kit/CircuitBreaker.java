@@ -0,0 +1,76 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens after {@code threshold} consecutive failures and stays open for at least {@code retryAfter} milliseconds,
+ * after which a single caller may probe the backend in the half-open state.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int threshold;
+    private final long retryAfter;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+
+    public CircuitBreaker(int threshold, long retryAfter) {
+        this.threshold = Math.max(1, threshold);
+        this.retryAfter = Math.max(0, retryAfter);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean closed() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * @return When the breaker last opened, in millis.
+     */
+    public long openedAt() {
+        return openedAt;
+    }
+
+    public void success() {
+        failures.set(0);
+    }
+
+    /**
+     * @return Whether this failure opened the breaker.
+     */
+    public boolean failure() {
+        if (failures.incrementAndGet() < threshold || state != State.CLOSED) return false;
+
+        open();
+        return true;
+    }
+
+    public synchronized void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * @return Whether the caller may probe the backend now.
+     */
+    public synchronized boolean tryHalfOpen() {
+        if (state != State.OPEN || System.currentTimeMillis() - openedAt < retryAfter) return false;
+
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    public synchronized void close() {
+        failures.set(0);
+        state = State.CLOSED;
+    }
+}
@@ -0,0 +1,126 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A small fixed-size pool of connections to one database. Connections are opened lazily,
+ * and a connection that failed a query is only handed out again if it is still valid.
+ */
+public class ConnectionPool {
+    private static final long BORROW_TIMEOUT_SECONDS = 10;
+
+    private final String name;
+    private final Supplier<Connection> factory;
+    private final int size;
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, Supplier<Connection> factory, int size) {
+        this.name = name;
+        this.factory = factory;
+        this.size = Math.max(1, size);
+    }
+
+    @FunctionalInterface
+    public interface Query<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Runs the query on a pooled connection. {@link SQLException}s are rethrown unchecked, like the rest of the storage.
+     */
+    public <T> T with(Query<T> query) {
+        Connection connection = borrow();
+        boolean failed = false;
+
+        try {
+            return query.apply(connection);
+        } catch (SQLException e) {
+            failed = true;
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            release(connection, failed);
+        }
+    }
+
+    private Connection borrow() {
+        if (closed) throw new IllegalStateException("The connection pool " + name + " is closed.");
+
+        Connection connection = idle.poll();
+        if (connection != null) return connection;
+
+        if (open.incrementAndGet() <= size) {
+            try {
+                return factory.get();
+            } catch (RuntimeException e) {
+                open.decrementAndGet();
+                throw e;
+            }
+        }
+
+        open.decrementAndGet();
+
+        try {
+            connection = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (connection == null) {
+            throw new IllegalStateException("Timed out waiting for a connection to " + name + ".");
+        }
+
+        return connection;
+    }
+
+    private void release(Connection connection, boolean failed) {
+        if (!closed && (!failed || valid(connection))) {
+            idle.add(connection);
+            return;
+        }
+
+        open.decrementAndGet();
+        close(connection);
+    }
+
+    private static boolean valid(Connection connection) {
+        try {
+            return connection.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            /* Closing anyway */
+        }
+    }
+
+    public void close() {
+        closed = true;
+
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            open.decrementAndGet();
+            close(connection);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.storage.IOGuard;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Wraps the storage backend in a {@link CircuitBreaker}.
+ * <p>
+ * While the breaker is open, or the {@link WriteSpool} still holds entries, writes are appended to the spool
+ * and reads throw {@link StorageUnavailableException}, so callers fall back to the cache. Every second the spool
+ * is replayed into the backend in order once the breaker allows a probe, and the breaker closes when it is empty.
+ * Replayed writes are applied last-writer-wins, the version checks of the original writes can't be kept.
+ */
+public class GuardedKitStorage implements KitStorage {
+    private static final int REPLAY_BATCH = 100;
+
+    /* Never saved, only used to probe the backend. */
+    private static final String PROBE_UUID = new UUID(0, 0).toString();
+
+    private final KitStorage delegate;
+    private final CircuitBreaker breaker;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    private WriteSpool spool;
+    private ScheduledTask recovery;
+    private long replayed;
+
+    public GuardedKitStorage(KitStorage delegate, CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public void setup() {
+        IOGuard.run("kit storage setup", delegate::setup);
+
+        try {
+            spool = new WriteSpool(Path.of(Utils.plugin().getDataFolder().getPath(), "spool.bin"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (spool.depth() > 0) {
+            // Replayed before anything reads, so startup sees the writes of the last run.
+            Utils.plugin().getLogger().warning("Replaying " + spool.depth() + " spooled kit writes from the last run.");
+            breaker.open();
+            recover(true);
+        }
+
+        recovery = PluginExecutors.timerAsync(() -> recover(false), 20, 20);
+    }
+
+    /**
+     * @return Whether reads and writes currently reach the backend.
+     */
+    public boolean available() {
+        return breaker.closed();
+    }
+
+    public CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    /**
+     * @return The amount of writes waiting in the spool.
+     */
+    public int spoolDepth() {
+        return spool == null ? 0 : spool.depth();
+    }
+
+    private <T> T guard(Supplier<T> call) {
+        if (!breaker.closed()) throw new StorageUnavailableException();
+
+        // Outside the breaker, a call refused on the main thread in strict mode says nothing about the backend.
+        return IOGuard.call("kit storage", () -> {
+            try {
+                T result = call.get();
+                breaker.success();
+                return result;
+            } catch (RuntimeException e) {
+                if (breaker.failure()) {
+                    Utils.plugin().getLogger().log(Level.SEVERE, "Kit storage failed repeatedly, spooling writes until it recovers", e);
+                }
+
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Spools the entry if the backend is unavailable.
+     *
+     * @return Whether the entry was spooled.
+     */
+    private boolean spooled(WriteSpool.Entry entry) {
+        // Once anything is spooled, later writes must queue behind it to keep their order.
+        synchronized (spool) {
+            if (breaker.closed()) return false;
+
+            IOGuard.run("kit spool append", () -> spool.append(entry));
+            return true;
+        }
+    }
+
+    @Override
+    public StoredKit read(String playerUUID, int kitNumber) {
+        return guard(() -> delegate.read(playerUUID, kitNumber));
+    }
+
+    /**
+     * @param expectedVersion {@link KitCache#UNKNOWN_VERSION} to check against the version stored right now.
+     */
+    @Override
+    public WriteResult write(String playerUUID, int kitNumber, String data, long expectedVersion) {
+        WriteSpool.Entry entry = new WriteSpool.Entry(WriteSpool.Type.WRITE, playerUUID, kitNumber, data);
+        if (spooled(entry)) return WriteResult.queued();
+
+        try {
+            return guard(() -> delegate.write(playerUUID, kitNumber, data, expectedVersion == KitCache.UNKNOWN_VERSION
+                    ? delegate.version(playerUUID, kitNumber)
+                    : expectedVersion));
+        } catch (RuntimeException e) {
+            if (!spooled(entry)) throw e;
+            return WriteResult.queued();
+        }
+    }
+
+    @Override
+    public void delete(String playerUUID, int kitNumber) {
+        WriteSpool.Entry entry = new WriteSpool.Entry(WriteSpool.Type.DELETE, playerUUID, kitNumber, null);
+        if (spooled(entry)) return;
+
+        try {
+            guard(() -> {
+                delegate.delete(playerUUID, kitNumber);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (!spooled(entry)) throw e;
+        }
+    }
+
+    @Override
+    public long version(String playerUUID, int kitNumber) {
+        return guard(() -> delegate.version(playerUUID, kitNumber));
+    }
+
+    @Override
+    public Map<Integer, Long> versions(String playerUUID) {
+        return guard(() -> delegate.versions(playerUUID));
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        guard(() -> {
+            delegate.forEach(visitor);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachName(NameVisitor visitor) {
+        guard(() -> {
+            delegate.forEachName(visitor);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> uuid(String name) {
+        return guard(() -> delegate.uuid(name));
+    }
+
+    @Override
+    public void saveName(String playerUUID, String name) {
+        WriteSpool.Entry entry = new WriteSpool.Entry(WriteSpool.Type.NAME, playerUUID, 0, name);
+        if (spooled(entry)) return;
+
+        try {
+            guard(() -> {
+                delegate.saveName(playerUUID, name);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (!spooled(entry)) throw e;
+        }
+    }
+
+    /**
+     * History is best-effort, revisions are never spooled.
+     */
+    @Override
+    public void writeRevision(String playerUUID, int kitNumber, Revision revision) {
+        guard(() -> {
+            delegate.writeRevision(playerUUID, kitNumber, revision);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Revision> revisions(String playerUUID, int kitNumber) {
+        return guard(() -> delegate.revisions(playerUUID, kitNumber));
+    }
+
+    @Override
+    public void deleteRevisions(String playerUUID, int kitNumber, long id) {
+        guard(() -> {
+            delegate.deleteRevisions(playerUUID, kitNumber, id);
+            return null;
+        });
+    }
+
+    public KitStorage delegate() {
+        return delegate;
+    }
+
+    /**
+     * Replays the spool once the breaker allows a probe. Runs on the scheduler's async threads, at most one at a time.
+     *
+     * @param force Whether to skip waiting for the breaker.
+     */
+    private void recover(boolean force) {
+        if (breaker.closed() || !replaying.compareAndSet(false, true)) return;
+
+        try {
+            if (!breaker.tryHalfOpen() && !force) return;
+
+            Set<String> changed = new HashSet<>();
+
+            try {
+                delegate.version(PROBE_UUID, 0);
+
+                while (true) {
+                    WriteSpool.Batch batch = spool.read(replayed, spool.committed(), REPLAY_BATCH);
+
+                    if (batch.entries().isEmpty()) {
+                        // Nothing may be spooled between emptying the spool and closing the breaker.
+                        synchronized (spool) {
+                            if (spool.clear(replayed)) {
+                                breaker.close();
+                                break;
+                            }
+                        }
+
+                        continue;
+                    }
+
+                    for (WriteSpool.Entry entry : batch.entries()) {
+                        replay(entry);
+                        changed.add(entry.playerUUID());
+                    }
+
+                    spool.replayed(batch.entries().size());
+                    replayed = batch.end();
+                }
+
+                replayed = 0;
+                Utils.plugin().getLogger().info("Kit storage recovered, spooled writes were replayed.");
+            } catch (IOException | RuntimeException e) {
+                breaker.open();
+                Utils.plugin().getLogger().log(Level.WARNING, "Kit storage is still unavailable", e);
+            }
+
+            // Replayed kits got new versions, cached players reload them.
+            changed.forEach(KitCache::reload);
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    private void replay(WriteSpool.Entry entry) {
+        switch (entry.type()) {
+            case WRITE -> {
+                WriteResult result = delegate.write(entry.playerUUID(), entry.kitNumber(), entry.data(),
+                        delegate.version(entry.playerUUID(), entry.kitNumber()));
+
+                // A conflict carries the version that won, so retrying needs no second read.
+                while (!result.saved()) {
+                    result = delegate.write(entry.playerUUID(), entry.kitNumber(), entry.data(), result.version());
+                }
+
+                KitChanges.published(entry.playerUUID(), entry.kitNumber(), result.version());
+            }
+            case DELETE -> {
+                delegate.delete(entry.playerUUID(), entry.kitNumber());
+                KitChanges.published(entry.playerUUID(), entry.kitNumber(), 0);
+            }
+            case NAME -> delegate.saveName(entry.playerUUID(), entry.data());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (recovery != null) {
+            recovery.cancel();
+        }
+
+        try {
+            if (spool != null) spool.close();
+        } catch (IOException e) {
+            Utils.plugin().getLogger().log(Level.WARNING, "Failed to close the kit spool", e);
+        }
+
+        delegate.close();
+    }
+}
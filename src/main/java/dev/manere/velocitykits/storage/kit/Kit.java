@@ -1,248 +1,507 @@
 package dev.manere.velocitykits.storage.kit;
 
 import dev.manere.utils.library.Utils;
-import dev.manere.utils.scheduler.Schedulers;
 import dev.manere.utils.serializers.Serializers;
-import dev.manere.utils.sql.connection.SQLConnector;
-import dev.manere.utils.sql.enums.PrimaryColumn;
 import dev.manere.utils.text.color.TextStyle;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import dev.manere.velocitykits.metrics.KitEvents;
+import dev.manere.velocitykits.metrics.Metrics;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import dev.manere.velocitykits.storage.search.ItemIndex;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
-import java.io.File;
-import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 
 public class Kit {
-    private static Connection connection;
-    private static boolean useMySQL;
-    private static File yamlFile;
-    private static FileConfiguration yamlConfig;
+    /**
+     * Storage slots of a kit: the 36 inventory slots, 4 armor slots and the offhand.
+     */
+    public static final int SIZE = 41;
+
+    private static GuardedKitStorage storage;
+    private static long revalidateAfter;
+
+    /**
+     * A kit together with the version it was read at, for saves that must not overwrite a change made in between.
+     *
+     * @param version The version to save against, {@code 0} if the kit was unused
+     *                or {@link KitCache#UNKNOWN_VERSION} if a local save of it was still pending.
+     */
+    public record Snapshot(Map<Integer, ItemStack> contents, long version) {
+
+    }
 
     public static void of() {
-        useMySQL = Utils.plugin().getConfig().getString("database").equalsIgnoreCase("mysql");
+        boolean useMySQL = Utils.plugin().getConfig().getString("database").equalsIgnoreCase("mysql");
 
-        if (useMySQL) {
-            setupMySQL();
-        } else {
-            setupYAML();
-        }
+        // The feed comes first, writes replayed from the spool during setup are published to it.
+        KitChanges.of(useMySQL ? new SQLChangeFeed() : new LocalChangeFeed());
+
+        CircuitBreaker breaker = new CircuitBreaker(
+                Utils.plugin().getConfig().getInt("storage.breaker.failure-threshold", 3),
+                Utils.plugin().getConfig().getLong("storage.breaker.retry-after", 5000)
+        );
+
+        storage = new GuardedKitStorage(useMySQL ? new MySQLKitStorage() : new YamlKitStorage(), breaker);
+        storage.setup();
+
+        StorageLanes.of(Utils.plugin().getConfig().getInt("storage.lanes", 0), executorMode(), maxConcurrent(useMySQL));
+        revalidateAfter = Utils.plugin().getConfig().getLong("storage.revalidate-after", 5000);
+        KitHistory.of();
+
+        StorageLanes.background().execute(Kit::index);
     }
 
-    private static void setupMySQL() {
-        connection = SQLConnector.of()
-                .authentication()
-                .host(Utils.plugin().getConfig().getString("sql.host"))
-                .port(Utils.plugin().getConfig().getInt("sql.port"))
-                .username(Utils.plugin().getConfig().getString("sql.username"))
-                .password(Utils.plugin().getConfig().getString("sql.password"))
-                .database(Utils.plugin().getConfig().getString("sql.database"))
-                .build()
-                .connect();
+    private static StorageLanes.Mode executorMode() {
+        String mode = Utils.plugin().getConfig().getString("storage.executor", "platform");
 
         try {
-            String table = SQLTableBuilder.of()
-                    .name("velocity_kits")
-                    .column("player_uuid", "VARCHAR(36) NOT NULL", PrimaryColumn.TRUE)
-                    .column("kit_number", "INT NOT NULL", PrimaryColumn.TRUE)
-                    .column("contents", "TEXT(65535) NOT NULL", PrimaryColumn.FALSE)
-                    .build();
-
-            connection.prepareStatement(table).executeUpdate();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private static void setupYAML() {
-        yamlFile = new File(Utils.plugin().getDataFolder(), "kits.yml");
-        if (!yamlFile.exists()) {
-            try {
-                yamlFile.createNewFile();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            return StorageLanes.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Utils.plugin().getLogger().warning("Unknown storage.executor '" + mode + "', using platform.");
+            return StorageLanes.Mode.PLATFORM;
         }
-        yamlConfig = YamlConfiguration.loadConfiguration(yamlFile);
     }
 
-    public static void delete(String playerUUID, int kitNumber) {
-        if (useMySQL) {
-            deleteFromMySQL(playerUUID, kitNumber);
-        } else {
-            deleteFromYAML(playerUUID, kitNumber);
-        }
+    /**
+     * @return The configured {@code storage.max-concurrent}, by default as many calls as there are pooled connections.
+     */
+    private static int maxConcurrent(boolean useMySQL) {
+        int configured = Utils.plugin().getConfig().getInt("storage.max-concurrent", 0);
+        if (configured > 0) return configured;
+        if (!useMySQL) return Runtime.getRuntime().availableProcessors();
+
+        int databases = Math.max(1, Utils.plugin().getConfig().getMapList("sql.shards").size());
+        return Math.max(1, Utils.plugin().getConfig().getInt("sql.pool-size", 4)) * databases;
+    }
+
+    /**
+     * Feeds every stored kit into the {@link ItemIndex} once, so searches never have to decode kits afterwards.
+     */
+    private static void index() {
+        storage.forEach((playerUUID, kitNumber, data) ->
+                ItemIndex.indexKit(playerUUID, kitNumber, Serializers.base64().deserializeItemStackMap(data)));
     }
 
-    private static void deleteFromMySQL(String playerUUID, int kitNumber) {
+    public static void delete(String playerUUID, int kitNumber) {
+        Metrics.increment(Metrics.Counter.DELETES);
+        KitEvents.Delete event = new KitEvents.Delete();
+        event.begin();
+        long start = Metrics.start();
+
         try {
-            try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM velocity_kits WHERE player_uuid = ? AND kit_number = ?")) {
-                stmt.setString(1, playerUUID);
-                stmt.setInt(2, kitNumber);
-                stmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            storage.delete(playerUUID, kitNumber);
+        } catch (RuntimeException e) {
+            Metrics.increment(Metrics.Counter.DELETE_ERRORS);
+            throw e;
+        }
+
+        Metrics.record(Metrics.Timer.DELETE_STORAGE, start);
+
+        if (event.shouldCommit()) {
+            event.player = playerUUID.hashCode();
+            event.kitNumber = kitNumber;
+            event.commit();
+        }
+
+        // Spooled deletes are published once they are replayed.
+        if (storage.available()) {
+            KitChanges.published(playerUUID, kitNumber, 0);
         }
+
+        KitCache.remove(playerUUID, kitNumber);
+        KitHistory.deleted(playerUUID, kitNumber);
+        ItemIndex.removeKit(playerUUID, kitNumber);
     }
 
-    private static void deleteFromYAML(String playerUUID, int kitNumber) {
-        String path = "kits." + playerUUID + "." + kitNumber;
-        yamlConfig.set(path, null);
-        saveYAML();
+    public static CompletableFuture<Void> deleteFuture(String playerUUID, int kitNumber) {
+        return CompletableFuture.runAsync(() -> delete(playerUUID, kitNumber), StorageLanes.lane(playerUUID));
     }
 
+    /**
+     * Runs the callback on the thread owning the player.
+     */
     public static void contentsAsync(Player player, int kitNumber, Consumer<Map<Integer, ItemStack>> callback) {
-        Schedulers.async().execute(() -> {
-            Map<Integer, ItemStack> kitContents = contents(player.getUniqueId().toString(), kitNumber);
-            Schedulers.sync().execute(() -> callback.accept(kitContents));
-        });
+        contentsFuture(player.getUniqueId().toString(), kitNumber).thenAcceptAsync(callback, PluginExecutors.entity(player));
     }
 
     public static void contentsAsync(String playerUUID, int kitNumber, Consumer<Map<Integer, ItemStack>> callback) {
-        Schedulers.async().execute(() -> {
-            Map<Integer, ItemStack> kitContents = contents(playerUUID, kitNumber);
-            Schedulers.sync().execute(() -> callback.accept(kitContents));
-        });
+        contentsFuture(playerUUID, kitNumber).thenAcceptAsync(callback, PluginExecutors.sync());
+    }
+
+    /**
+     * Reads the kit on the player's storage lane, after any save queued before it. The future completes on the storage thread,
+     * chain with {@link PluginExecutors#entity} before touching players.
+     */
+    public static CompletableFuture<Map<Integer, ItemStack>> contentsFuture(String playerUUID, int kitNumber) {
+        long queued = Metrics.start();
+
+        return CompletableFuture.supplyAsync(() -> contents(playerUUID, kitNumber,
+                Metrics.record(Metrics.Timer.LOAD_QUEUE, queued)).contents(), StorageLanes.lane(playerUUID));
+    }
+
+    /**
+     * Same as {@link #contentsFuture}, but keeps the version the kit was read at, to save edits against it
+     * with {@link #saveAsync(Player, int, Map, long)}.
+     */
+    public static CompletableFuture<Snapshot> snapshotFuture(String playerUUID, int kitNumber) {
+        long queued = Metrics.start();
+
+        return CompletableFuture.supplyAsync(() -> contents(playerUUID, kitNumber,
+                Metrics.record(Metrics.Timer.LOAD_QUEUE, queued)), StorageLanes.lane(playerUUID));
     }
 
+    /**
+     * Reads the kit, preferring the cache. Cached kits older than {@code storage.revalidate-after} milliseconds
+     * are checked with a version-only query and only fetched again if another server changed them.
+     */
     public static Map<Integer, ItemStack> contents(String playerUUID, int kitNumber) {
-        if (useMySQL) {
-            return contentsFromMySQL(playerUUID, kitNumber);
-        } else {
-            return contentsFromYAML(playerUUID, kitNumber);
+        return contents(playerUUID, kitNumber, 0).contents();
+    }
+
+    private static Snapshot contents(String playerUUID, int kitNumber, long queueWait) {
+        KitEvents.Load event = new KitEvents.Load();
+        event.begin();
+
+        Snapshot contents = read(playerUUID, kitNumber, event);
+
+        if (event.shouldCommit()) {
+            event.player = playerUUID.hashCode();
+            event.kitNumber = kitNumber;
+            event.queueWait = queueWait;
+            event.commit();
         }
+
+        return contents;
     }
 
-    private static Map<Integer, ItemStack> contentsFromMySQL(String playerUUID, int kitNumber) {
-        ResultSet rs = null;
+    /* Fills in the stages of the event as it goes, which costs next to nothing when it isn't recorded. */
+    private static Snapshot read(String playerUUID, int kitNumber, KitEvents.Load event) {
+        KitCache.Entry entry = KitCache.entry(playerUUID, kitNumber);
+
+        // Without an entry the kit is either known to be unused or not cached at all, the cache tells which.
+        boolean fresh = entry == null
+                || entry.version() == KitCache.UNKNOWN_VERSION
+                || System.currentTimeMillis() - entry.validatedAt() < revalidateAfter;
+
         try {
-            try (PreparedStatement stmt = connection.prepareStatement("SELECT contents FROM velocity_kits WHERE player_uuid = ? AND kit_number = ?")) {
-                stmt.setString(1, playerUUID);
-                stmt.setInt(2, kitNumber);
+            if (!fresh && revalidate(playerUUID, kitNumber, event) == entry.version()) {
+                KitCache.validated(playerUUID, kitNumber);
+                fresh = true;
+            }
+        } catch (StorageUnavailableException e) {
+            // Possibly stale, but better than nothing until storage is back.
+            fresh = true;
+        }
 
-                rs = stmt.executeQuery();
+        if (fresh) {
+            Map<Integer, ItemStack> cached = KitCache.get(playerUUID, kitNumber);
 
-                if (rs.next()) {
-                    String data = rs.getString("contents");
-                    return Serializers.base64().deserializeItemStackMap(data);
-                }
+            if (cached != null) {
+                Metrics.increment(Metrics.Counter.CACHE_HITS);
+                event.cacheHit = true;
+
+                // Without an entry the kit is known to be unused. Should the entry have changed since, the save conflicts.
+                return new Snapshot(cached, entry == null ? 0 : entry.version());
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+        }
+
+        Metrics.increment(Metrics.Counter.CACHE_MISSES);
+
+        long start = Metrics.start();
+        StoredKit stored = storage.read(playerUUID, kitNumber);
+        event.storage += Metrics.record(Metrics.Timer.LOAD_STORAGE, start);
+
+        Map<Integer, ItemStack> contents = new HashMap<>();
+
+        if (stored != null) {
+            event.bytes = stored.data().length();
+
+            KitEvents.Decode decode = new KitEvents.Decode();
+            decode.begin();
+            start = Metrics.start();
+
+            contents = sparse(Serializers.base64().deserializeItemStackMap(stored.data()));
+            event.decode = Metrics.record(Metrics.Timer.LOAD_DECODE, start);
+
+            if (decode.shouldCommit()) {
+                decode.player = playerUUID.hashCode();
+                decode.kitNumber = kitNumber;
+                decode.bytes = event.bytes;
+                decode.commit();
             }
         }
-        return new HashMap<>();
+
+        long version = stored == null ? 0 : stored.version();
+
+        KitCache.put(playerUUID, kitNumber, contents, version);
+        return new Snapshot(contents, version);
     }
 
-    private static Map<Integer, ItemStack> contentsFromYAML(String playerUUID, int kitNumber) {
-        String path = "kits." + playerUUID + "." + kitNumber;
-        String data = yamlConfig.getString(path);
-        if (data != null) {
-            return Serializers.base64().deserializeItemStackMap(data);
+    private static long revalidate(String playerUUID, int kitNumber, KitEvents.Load event) {
+        long start = Metrics.start();
+
+        try {
+            return storage.version(playerUUID, kitNumber);
+        } finally {
+            event.storage += Metrics.record(Metrics.Timer.LOAD_STORAGE, start);
         }
-        return new HashMap<>();
+    }
+
+    /**
+     * @return The version of every kit the player has saved, keyed by kit number. Doesn't read any contents.
+     */
+    public static Map<Integer, Long> versions(String playerUUID) {
+        return storage.versions(playerUUID);
+    }
+
+    /**
+     * @return The contents without empty slots, which is how kits are stored and cached.
+     */
+    public static Map<Integer, ItemStack> sparse(Map<Integer, ItemStack> contents) {
+        Map<Integer, ItemStack> sparse = new HashMap<>();
+
+        contents.forEach((slot, item) -> {
+            if (item != null && !item.getType().isAir()) {
+                sparse.put(slot, item);
+            }
+        });
+
+        return sparse;
     }
 
     public static void load(Player player, int kitNumber) {
-        Inventory inventory = player.getInventory();
+        Metrics.increment(Metrics.Counter.LOADS);
+        long start = Metrics.start();
 
-        contentsAsync(player, kitNumber, contents -> {
-            if (contents.isEmpty()) {
-                player.sendActionBar(TextStyle.color("<#ff0000>That kit is empty!"));
+        contentsFuture(player.getUniqueId().toString(), kitNumber).whenCompleteAsync((contents, throwable) -> {
+            if (throwable == null) {
+                long applying = Metrics.start();
+                apply(player, kitNumber, contents);
+
+                Metrics.record(Metrics.Timer.LOAD_APPLY, applying);
+                Metrics.record(Metrics.Timer.LOAD_TOTAL, start);
                 return;
             }
 
-            player.sendActionBar(TextStyle.color("<#00ff00>Kit <number> has been loaded."
-                    .replaceAll("<number>", String.valueOf(kitNumber))));
-
-            for (Map.Entry<Integer, ItemStack> entry : contents.entrySet()) {
-                int slot = entry.getKey();
-                ItemStack item = entry.getValue();
+            Metrics.increment(Metrics.Counter.LOAD_ERRORS);
 
-                if (slot >= 0 && slot < inventory.getSize()) {
-                    inventory.setItem(slot, item);
-                } else {
-                    return;
-                }
+            if (throwable.getCause() instanceof StorageUnavailableException) {
+                player.sendActionBar(TextStyle.color("<#ff0000>Kits are unavailable right now, please try again soon."));
+            } else {
+                Utils.plugin().getLogger().log(Level.SEVERE, "Failed to load kit " + kitNumber + " of " + player.getName(), throwable);
+                player.sendActionBar(TextStyle.color("<#ff0000>Your kit could not be loaded."));
             }
-        });
+        }, PluginExecutors.entity(player));
     }
 
-    public static void saveAsync(Player player, int kitNumber, Map<Integer, ItemStack> contents) {
-        Schedulers.async().execute(task -> save(String.valueOf(player.getUniqueId()), kitNumber, contents));
-    }
+    /**
+     * Puts the kit into the player's inventory. Must be called on the thread owning the player.
+     */
+    public static void apply(Player player, int kitNumber, Map<Integer, ItemStack> contents) {
+        Inventory inventory = player.getInventory();
 
-    public static void save(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
-        if (useMySQL) {
-            saveToMySQL(playerUUID, kitNumber, contents);
-        } else {
-            saveToYAML(playerUUID, kitNumber, contents);
+        if (contents.isEmpty()) {
+            player.sendActionBar(TextStyle.color("<#ff0000>That kit is empty!"));
+            return;
+        }
+
+        KitEvents.Apply event = new KitEvents.Apply();
+        event.begin();
+
+        player.sendActionBar(TextStyle.color("<#00ff00>Kit <number> has been loaded."
+                .replaceAll("<number>", String.valueOf(kitNumber))));
+
+        // Kits are stored sparse, slots without an entry are empty in the kit.
+        for (int slot = 0; slot < Math.min(SIZE, inventory.getSize()); slot++) {
+            inventory.setItem(slot, contents.get(slot));
+        }
+
+        if (event.shouldCommit()) {
+            event.player = player.getUniqueId().toString().hashCode();
+            event.kitNumber = kitNumber;
+            event.items = contents.size();
+            event.commit();
         }
     }
 
-    private static void saveToMySQL(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
+    public static CompletableFuture<WriteResult> saveAsync(Player player, int kitNumber, Map<Integer, ItemStack> contents) {
+        return saveAsync(String.valueOf(player.getUniqueId()), kitNumber, contents);
+    }
+
+    /**
+     * Saves an edit of a {@link Snapshot}, which fails with a conflict if the kit changed after the snapshot was read.
+     */
+    public static CompletableFuture<WriteResult> saveAsync(Player player, int kitNumber, Map<Integer, ItemStack> contents, long expectedVersion) {
+        String playerUUID = String.valueOf(player.getUniqueId());
+        KitCache.stage(playerUUID, kitNumber, sparse(contents));
+        long queued = Metrics.start();
+
+        return CompletableFuture.supplyAsync(() -> {
+            Metrics.record(Metrics.Timer.SAVE_QUEUE, queued);
+            return save(playerUUID, kitNumber, contents, expectedVersion);
+        }, StorageLanes.lane(playerUUID));
+    }
+
+    /**
+     * Saves against the version the cache holds when the save runs, for writes that aren't edits of something read earlier.
+     */
+    public static CompletableFuture<WriteResult> saveAsync(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
+        // The cache is updated right away so loads answered from memory never see the previous kit.
+        KitCache.stage(playerUUID, kitNumber, sparse(contents));
+        long queued = Metrics.start();
+
+        return CompletableFuture.supplyAsync(() -> {
+            Metrics.record(Metrics.Timer.SAVE_QUEUE, queued);
+            return save(playerUUID, kitNumber, contents);
+        }, StorageLanes.lane(playerUUID));
+    }
+
+    /**
+     * Saves the kit if nobody else changed it since this server last saw it. A kit without any items
+     * is deleted instead, so unused kit numbers take up no storage.
+     *
+     * @return Whether the kit was saved, or the version that was in the way.
+     */
+    public static WriteResult save(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
+        // An unknown version is resolved by the storage, right before writing.
+        return save(playerUUID, kitNumber, contents, KitCache.version(playerUUID, kitNumber));
+    }
+
+    /**
+     * @param expected The version the kit must still have, see {@link Snapshot#version()}.
+     */
+    private static WriteResult save(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents, long expected) {
+        Map<Integer, ItemStack> sparse = sparse(contents);
+
+        if (sparse.isEmpty()) {
+            delete(playerUUID, kitNumber);
+            return WriteResult.saved(0);
+        }
+
+        Metrics.increment(Metrics.Counter.SAVES);
+        KitEvents.Save event = new KitEvents.Save();
+        event.begin();
+
+        long start = Metrics.start();
+        String data = Serializers.base64().serializeItemStacks(sparse);
+        event.encode = Metrics.record(Metrics.Timer.SAVE_ENCODE, start);
+
+        WriteResult result;
+
+        start = Metrics.start();
         try {
-            String data = Serializers.base64().serializeItemStacks(contents);
-
-            try (PreparedStatement stmt = connection.prepareStatement(
-                    "INSERT INTO velocity_kits " +
-                            "(player_uuid, kit_number, contents) " +
-                            "VALUES (?, ?, ?) " +
-                            "ON DUPLICATE KEY UPDATE " +
-                            "contents = ?")) {
-
-                stmt.setString(1, playerUUID);
-                stmt.setInt(2, kitNumber);
-                stmt.setString(3, data);
-                stmt.setString(4, data);
-                stmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            result = storage.write(playerUUID, kitNumber, data, expected);
+        } catch (RuntimeException e) {
+            Metrics.increment(Metrics.Counter.SAVE_ERRORS);
+            throw e;
+        }
+        event.storage = Metrics.record(Metrics.Timer.SAVE_STORAGE, start);
+
+        if (event.shouldCommit()) {
+            event.player = playerUUID.hashCode();
+            event.kitNumber = kitNumber;
+            event.bytes = data.length();
+            event.result = !result.saved() ? "conflict" : result.spooled() ? "spooled" : "saved";
+            event.commit();
         }
+
+        if (!result.saved()) {
+            Metrics.increment(Metrics.Counter.SAVE_CONFLICTS);
+            KitCache.evict(playerUUID, kitNumber);
+            return result;
+        }
+
+        if (result.spooled()) {
+            Metrics.increment(Metrics.Counter.SAVES_SPOOLED);
+        } else {
+            KitChanges.published(playerUUID, kitNumber, result.version());
+            KitHistory.record(playerUUID, kitNumber, sparse, data, result.version());
+        }
+
+        KitCache.put(playerUUID, kitNumber, sparse, result.version());
+        ItemIndex.indexKit(playerUUID, kitNumber, sparse);
+
+        return result;
     }
 
-    private static void saveToYAML(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
-        String data = Serializers.base64().serializeItemStacks(contents);
-        String path = "kits." + playerUUID + "." + kitNumber;
-        yamlConfig.set(path, data);
-        saveYAML();
+    /**
+     * Visits every known player UUID to name pair stored by the backend, without loading them all at once.
+     */
+    public static void forEachName(KitStorage.NameVisitor visitor) {
+        storage.forEachName(visitor);
     }
 
-    private static void saveYAML() {
-        try {
-            yamlConfig.save(yamlFile);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * @return The UUID stored for the name, matched case-insensitively.
+     */
+    public static Optional<String> uuid(String name) {
+        return storage.uuid(name);
+    }
+
+    public static void saveName(String playerUUID, String name) {
+        storage.saveName(playerUUID, name);
+    }
+
+    /**
+     * Moves players whose shard changed after a shard was added. Blocks until done, don't call on the main thread.
+     *
+     * @return The amount of rows moved.
+     * @throws IllegalStateException If the storage isn't sharded MySQL or a rebalance is already running.
+     */
+    public static long rebalance(Consumer<String> progress) {
+        if (!(storage.delegate() instanceof MySQLKitStorage mysql)) {
+            throw new IllegalStateException("Only the mysql database can be rebalanced.");
         }
+
+        return mysql.rebalance(progress);
+    }
+
+    /**
+     * @return The configured backend itself, without the circuit breaker. Only for tooling, kits written
+     * through it bypass the cache and the change feed.
+     */
+    public static KitStorage backend() {
+        return storage.delegate();
+    }
+
+    static GuardedKitStorage storage() {
+        return storage;
+    }
+
+    /**
+     * @return Whether the storage backend is reachable, false while writes are spooled.
+     */
+    public static boolean available() {
+        return storage != null && storage.available();
+    }
+
+    public static CircuitBreaker.State breakerState() {
+        return storage.state();
+    }
+
+    /**
+     * @return The amount of writes waiting to be replayed into the storage backend.
+     */
+    public static int spoolDepth() {
+        return storage.spoolDepth();
     }
 
     public static void close() {
-        if (useMySQL) {
-            try {
-                if (connection != null && !connection.isClosed()) {
-                    connection.close();
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
+        StorageLanes.close();
+        KitChanges.close();
+        KitHistory.close();
+
+        if (storage != null) {
+            storage.close();
         }
     }
 }
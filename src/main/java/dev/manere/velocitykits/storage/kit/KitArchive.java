@@ -0,0 +1,314 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.serializers.Serializers;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Backend independent backups of every kit and player name.
+ * <p>
+ * An archive is a small uncompressed header followed by a gzip stream of records, ending with the record counts and
+ * a CRC32 of every record before them. Backups stream straight from the backend into the file and restores stream
+ * back out of it, so neither ever holds more than a buffer and a bounded amount of pending writes in memory.
+ */
+public class KitArchive {
+    public static final String EXTENSION = ".vkb";
+
+    private static final int MAGIC = 0x564B4241;
+    private static final short FORMAT = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_WRITES = 256;
+
+    private static final byte END = 0;
+    private static final byte NAME = 1;
+    private static final byte KIT = 2;
+
+    private static final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * @param bytes The size of the archive on disk.
+     * @param nanos How long the backup or restore took.
+     */
+    public record Summary(Path file, long kits, long names, long errors, long bytes, long nanos) {
+        public double kitsPerSecond() {
+            return nanos == 0 ? 0 : kits * 1e9 / nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1024 * 1024);
+        }
+    }
+
+    public static Path directory() {
+        return Utils.plugin().getDataFolder().toPath().resolve("backups");
+    }
+
+    /**
+     * @return The archive file names in the backup directory, newest first.
+     */
+    public static List<String> archives() {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(EXTENSION))
+                    .sorted((a, b) -> b.compareTo(a))
+                    .toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Writes every kit and player name of the storage backend to a new archive in the backup directory.
+     * Blocks until done, don't call on the main thread.
+     *
+     * @throws IllegalStateException If a backup or restore is already running.
+     */
+    public static Summary backup() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A backup or restore is already running.");
+        }
+
+        try {
+            Files.createDirectories(directory());
+            Path file = directory().resolve("kits-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + EXTENSION);
+            Path temp = file.resolveSibling(file.getFileName() + ".part");
+
+            long start = System.nanoTime();
+            long[] counts = write(temp, Kit.backend());
+
+            // Only complete archives ever get the real name.
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            return new Summary(file, counts[0], counts[1], 0, Files.size(file), System.nanoTime() - start);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Verifies the archive, then writes its kits back through the regular save path, so caches, the change feed
+     * and the item index follow along. Kits that aren't in the archive are left alone.
+     * Blocks until done, don't call on the main thread.
+     *
+     * @param playerUUID Only restores this player, or everyone if null.
+     * @throws IOException           If the archive can't be read or fails its checksum, before anything is restored.
+     * @throws IllegalStateException If a backup or restore is already running.
+     */
+    public static Summary restore(Path file, @Nullable String playerUUID) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A backup or restore is already running.");
+        }
+
+        try {
+            long start = System.nanoTime();
+            verify(file);
+
+            Semaphore pending = new Semaphore(MAX_PENDING_WRITES);
+            AtomicLong errors = new AtomicLong();
+            long kits = 0;
+            long names = 0;
+
+            try (DataInputStream in = open(file, null)) {
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == END) break;
+
+                    String uuid = in.readUTF();
+
+                    if (type == NAME) {
+                        String name = in.readUTF();
+                        if (playerUUID != null && !playerUUID.equals(uuid)) continue;
+
+                        Kit.saveName(uuid, name);
+                        names++;
+                        continue;
+                    }
+
+                    int kitNumber = in.readInt();
+                    byte[] data = new byte[in.readInt()];
+                    in.readFully(data);
+                    if (playerUUID != null && !playerUUID.equals(uuid)) continue;
+
+                    Map<Integer, ItemStack> contents = Serializers.base64().deserializeItemStackMap(new String(data, StandardCharsets.UTF_8));
+
+                    // Keeps the lanes from filling up faster than the backend takes writes.
+                    pending.acquireUninterruptibly();
+                    Kit.saveAsync(uuid, kitNumber, contents).whenComplete((result, throwable) -> {
+                        if (throwable != null || !result.saved()) errors.incrementAndGet();
+                        pending.release();
+                    });
+
+                    kits++;
+                }
+            }
+
+            pending.acquireUninterruptibly(MAX_PENDING_WRITES);
+            return new Summary(file, kits - errors.get(), names, errors.get(), Files.size(file), System.nanoTime() - start);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Reads the whole archive and checks its counts and checksum.
+     *
+     * @throws IOException If the archive is truncated, corrupt or not an archive at all.
+     */
+    public static void verify(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+
+        try (DataInputStream in = open(file, crc)) {
+            long kits = 0;
+            long names = 0;
+
+            while (true) {
+                byte type = in.readByte();
+                if (type == END) break;
+
+                in.readUTF();
+
+                if (type == NAME) {
+                    in.readUTF();
+                    names++;
+                } else if (type == KIT) {
+                    in.readInt();
+                    in.skipNBytes(in.readInt());
+                    kits++;
+                } else {
+                    throw new IOException("Unknown record type " + type + ".");
+                }
+            }
+
+            long checksum = crc.getValue();
+
+            if (in.readLong() != kits || in.readLong() != names || in.readLong() != checksum) {
+                throw new IOException("The archive failed its checksum.");
+            }
+        } catch (EOFException e) {
+            throw new IOException("The archive is truncated.", e);
+        }
+    }
+
+    /* Shards visit their rows in parallel, so records are appended under the stream's lock. Names come before kits. */
+    private static long[] write(Path file, KitStorage storage) throws IOException {
+        CRC32 crc = new CRC32();
+        long[] counts = new long[2];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + Long.BYTES)
+                    .putInt(MAGIC)
+                    .putShort(FORMAT)
+                    .putLong(System.currentTimeMillis())
+                    .flip();
+
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), BUFFER_SIZE), crc));
+
+            try {
+                storage.forEachName((playerUUID, name) -> {
+                    synchronized (out) {
+                        try {
+                            out.writeByte(NAME);
+                            out.writeUTF(playerUUID);
+                            out.writeUTF(name);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+
+                        counts[1]++;
+                    }
+                });
+
+                storage.forEach((playerUUID, kitNumber, data) -> {
+                    byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+
+                    synchronized (out) {
+                        try {
+                            out.writeByte(KIT);
+                            out.writeUTF(playerUUID);
+                            out.writeInt(kitNumber);
+                            out.writeInt(bytes.length);
+                            out.write(bytes);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+
+                        counts[0]++;
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            out.writeByte(END);
+            long checksum = crc.getValue();
+            out.writeLong(counts[0]);
+            out.writeLong(counts[1]);
+            out.writeLong(checksum);
+
+            out.close();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        return counts;
+    }
+
+    /**
+     * @param crc Updated with every record byte read, if not null.
+     */
+    private static DataInputStream open(Path file, @Nullable CRC32 crc) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + Long.BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException("Not a kit archive.");
+            }
+
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException("Not a kit archive.");
+
+            short format = header.getShort();
+            if (format != FORMAT) throw new IOException("Unsupported archive format " + format + ".");
+
+            InputStream in = new GZIPInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE), BUFFER_SIZE);
+            return new DataInputStream(crc == null ? in : new CheckedInputStream(in, crc));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse per-player kit cache. Only kits that actually hold items take up an entry,
+ * and once the saved kit versions of a player are known, reads for unused kit numbers
+ * are answered without touching the storage backend.
+ * <p>
+ * Every entry carries the storage version it was read or written at, so it can be revalidated
+ * with a version-only query instead of fetching the kit again. Players are loaded on join and evicted on quit.
+ */
+public class KitCache implements Listener {
+    /**
+     * Version of an entry that was changed locally but not written yet.
+     */
+    static final long UNKNOWN_VERSION = -1;
+
+    private static final Map<String, PlayerKits> players = new ConcurrentHashMap<>();
+
+    /**
+     * @param contents    The sparse kit contents, never handed out without copying.
+     * @param version     The storage version the contents belong to.
+     * @param validatedAt When the version was last confirmed against storage, in millis.
+     */
+    record Entry(Map<Integer, ItemStack> contents, long version, long validatedAt) {
+
+    }
+
+    private static final class PlayerKits {
+        private final Map<Integer, Entry> kits = new ConcurrentHashMap<>();
+        private volatile Map<Integer, Long> versions;
+    }
+
+    /**
+     * @return A copy of the cached kit, an empty map if the kit is known to be unused, or null if it is not cached.
+     */
+    @Nullable
+    public static Map<Integer, ItemStack> get(String playerUUID, int kitNumber) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return null;
+
+        Entry entry = kits.kits.get(kitNumber);
+        if (entry != null) return copy(entry.contents());
+
+        Map<Integer, Long> versions = kits.versions;
+        if (versions != null && !versions.containsKey(kitNumber)) return new HashMap<>();
+
+        return null;
+    }
+
+    /**
+     * @return The kit numbers the player has saved, or null if they are not known yet.
+     */
+    @Nullable
+    public static Set<Integer> saved(String playerUUID) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return null;
+
+        Map<Integer, Long> versions = kits.versions;
+        return versions == null ? null : versions.keySet();
+    }
+
+    @Nullable
+    static Entry entry(String playerUUID, int kitNumber) {
+        PlayerKits kits = players.get(playerUUID);
+        return kits == null ? null : kits.kits.get(kitNumber);
+    }
+
+    /**
+     * @return The version the cache last saw for the kit, {@code 0} if it is known to be unused,
+     * or {@link #UNKNOWN_VERSION} if the cache can't tell.
+     */
+    static long version(String playerUUID, int kitNumber) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return UNKNOWN_VERSION;
+
+        Map<Integer, Long> versions = kits.versions;
+        if (versions == null) return UNKNOWN_VERSION;
+
+        return versions.getOrDefault(kitNumber, 0L);
+    }
+
+    static void put(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents, long version) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return;
+
+        if (contents.isEmpty()) {
+            kits.kits.remove(kitNumber);
+            updateVersion(kits, kitNumber, 0);
+        } else {
+            kits.kits.put(kitNumber, new Entry(copy(contents), version, System.currentTimeMillis()));
+            updateVersion(kits, kitNumber, version);
+        }
+    }
+
+    /**
+     * Puts contents that are about to be written, keeping the version the write will be checked against.
+     */
+    static void stage(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return;
+
+        Entry previous = kits.kits.get(kitNumber);
+        long version = previous == null ? version(playerUUID, kitNumber) : previous.version();
+
+        kits.kits.put(kitNumber, new Entry(copy(contents), version, previous == null ? 0 : previous.validatedAt()));
+    }
+
+    static void remove(String playerUUID, int kitNumber) {
+        put(playerUUID, kitNumber, Map.of(), 0);
+    }
+
+    /**
+     * Forgets the kit, the next read goes to storage.
+     */
+    static void evict(String playerUUID, int kitNumber) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return;
+
+        kits.kits.remove(kitNumber);
+
+        synchronized (KitCache.class) {
+            // Unknown until reloaded, a missing version would make the kit look unused.
+            kits.versions = null;
+        }
+
+        StorageLanes.lane(playerUUID).execute(() -> load(playerUUID, kits));
+    }
+
+    /**
+     * Called for kits changed on another server. Unless the cache already holds that version the kit is evicted.
+     *
+     * @param version The version the kit was changed to, {@code 0} if it was deleted.
+     */
+    static void changed(String playerUUID, int kitNumber, long version) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return;
+
+        Entry entry = kits.kits.get(kitNumber);
+
+        // A local write is pending, its version check settles which change wins.
+        if (entry != null && entry.version() == UNKNOWN_VERSION) return;
+
+        if (version(playerUUID, kitNumber) == version) return;
+
+        evict(playerUUID, kitNumber);
+    }
+
+    /**
+     * @return The cached kits of the player that are in sync with storage, by kit number.
+     */
+    static Map<Integer, Entry> snapshot(String playerUUID) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return Map.of();
+
+        Map<Integer, Entry> snapshot = new TreeMap<>();
+        kits.kits.forEach((kitNumber, entry) -> {
+            if (entry.version() != UNKNOWN_VERSION) snapshot.put(kitNumber, entry);
+        });
+        return snapshot;
+    }
+
+    /**
+     * Fills the cache with a kit handed over by another server. It is only kept if its version
+     * matches storage, which is checked right away or by the join-time load, whichever runs last.
+     *
+     * @return False if the player isn't cached on this server.
+     */
+    static boolean warm(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents, long version) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return false;
+
+        Map<Integer, Long> versions = kits.versions;
+        if (versions != null && !Objects.equals(versions.get(kitNumber), version)) return true;
+
+        kits.kits.putIfAbsent(kitNumber, new Entry(copy(contents), version, versions == null ? 0 : System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * Forgets the player's versions and kits that were only written locally, then loads them again.
+     */
+    static void reload(String playerUUID) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return;
+
+        kits.kits.values().removeIf(entry -> entry.version() == UNKNOWN_VERSION);
+
+        synchronized (KitCache.class) {
+            kits.versions = null;
+        }
+
+        StorageLanes.lane(playerUUID).execute(() -> load(playerUUID, kits));
+    }
+
+    static void validated(String playerUUID, int kitNumber) {
+        PlayerKits kits = players.get(playerUUID);
+        if (kits == null) return;
+
+        kits.kits.computeIfPresent(kitNumber, (number, entry) ->
+                new Entry(entry.contents(), entry.version(), System.currentTimeMillis()));
+    }
+
+    private static synchronized void updateVersion(PlayerKits kits, int kitNumber, long version) {
+        Map<Integer, Long> versions = kits.versions;
+        if (versions == null) return;
+
+        Map<Integer, Long> updated = new TreeMap<>(versions);
+        if (version == 0) {
+            updated.remove(kitNumber);
+        } else {
+            updated.put(kitNumber, version);
+        }
+
+        kits.versions = Collections.unmodifiableMap(updated);
+    }
+
+    private static Map<Integer, ItemStack> copy(Map<Integer, ItemStack> contents) {
+        Map<Integer, ItemStack> copy = new HashMap<>(contents.size());
+        contents.forEach((slot, item) -> {
+            if (item != null) copy.put(slot, item.clone());
+        });
+        return copy;
+    }
+
+    /* Runs on the player's lane, so no write of this player can run at the same time. */
+    private static void load(String playerUUID, PlayerKits kits) {
+        Map<Integer, Long> versions;
+
+        try {
+            versions = new TreeMap<>(Kit.versions(playerUUID));
+        } catch (StorageUnavailableException e) {
+            // Stays unknown, the player is reloaded once storage recovers.
+            return;
+        }
+
+        synchronized (KitCache.class) {
+            // Cached kits whose version moved on are stale.
+            kits.kits.entrySet().removeIf(entry -> entry.getValue().version() != UNKNOWN_VERSION
+                    && !Objects.equals(versions.get(entry.getKey()), entry.getValue().version()));
+            kits.versions = Collections.unmodifiableMap(versions);
+        }
+    }
+
+    /**
+     * Starts caching the player's kits.
+     *
+     * @return Completes once the saved kit versions are loaded, on the player's storage lane.
+     */
+    public static CompletableFuture<Void> join(String playerUUID) {
+        PlayerKits kits = new PlayerKits();
+        players.put(playerUUID, kits);
+
+        return CompletableFuture.runAsync(() -> load(playerUUID, kits), StorageLanes.lane(playerUUID));
+    }
+
+    public static void quit(String playerUUID) {
+        players.remove(playerUUID);
+        KitHistory.forget(playerUUID);
+    }
+
+    static boolean cached(String playerUUID) {
+        return players.containsKey(playerUUID);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        join(event.getPlayer().getUniqueId().toString());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        quit(event.getPlayer().getUniqueId().toString());
+    }
+}
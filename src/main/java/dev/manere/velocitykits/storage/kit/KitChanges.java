@@ -0,0 +1,125 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Keeps the {@link KitCache} of this server in line with kit edits made on other servers.
+ * <p>
+ * Every save and delete is appended to the {@link ChangeFeed}, and the feed is tailed every
+ * {@code storage.change-feed.poll-interval-ticks} in batches of {@code storage.change-feed.batch-size}.
+ * Changes made by another server evict the cached kit unless the cache already holds that version.
+ * <p>
+ * Ids are handed out when a change is inserted, not when it commits, so a slow insert can show up behind
+ * ids that were already read. Every poll therefore reads the last {@code storage.change-feed.overlap-ids}
+ * ids again and skips the changes it has seen. A change that commits even later than that is missed,
+ * its kit is only refreshed once the cached copy is revalidated.
+ */
+public class KitChanges {
+    private static final int MAX_BATCHES_PER_POLL = 20;
+
+    /**
+     * Identifies this server in the feed, so it skips its own changes.
+     */
+    private static final String ORIGIN = UUID.randomUUID().toString();
+
+    private static final AtomicBoolean polling = new AtomicBoolean();
+
+    /* Ids within the overlap that were already applied. Only touched while polling. */
+    private static final NavigableSet<Long> seen = new TreeSet<>();
+
+    private static ChangeFeed feed;
+    private static ScheduledTask task;
+    private static long cursor;
+    private static int batchSize;
+    private static long overlap;
+    private static long retention;
+    private static long lastPrune;
+
+    public static void of(ChangeFeed changeFeed) {
+        feed = changeFeed;
+        feed.setup();
+
+        long interval = Math.max(1, Utils.plugin().getConfig().getLong("storage.change-feed.poll-interval-ticks", 20));
+        batchSize = Math.max(1, Utils.plugin().getConfig().getInt("storage.change-feed.batch-size", 500));
+        overlap = Math.max(0, Utils.plugin().getConfig().getLong("storage.change-feed.overlap-ids", 100));
+        retention = Math.max(1, Utils.plugin().getConfig().getLong("storage.change-feed.retention-seconds", 600)) * 1000;
+
+        // Only changes made from now on matter, older ones were already seen by the storage reads.
+        cursor = feed.head();
+        lastPrune = System.currentTimeMillis();
+
+        task = PluginExecutors.timerAsync(KitChanges::poll, interval, interval);
+    }
+
+    /**
+     * Appends a change made by this server. Called on the player's storage lane right after the write.
+     *
+     * @param version The new version of the kit, {@code 0} if it was deleted.
+     */
+    static void published(String playerUUID, int kitNumber, long version) {
+        if (feed == null) return;
+
+        try {
+            feed.append(ORIGIN, playerUUID, kitNumber, version);
+        } catch (RuntimeException e) {
+            // The kit itself is saved, other servers just revalidate it a little later.
+            Utils.plugin().getLogger().log(Level.WARNING, "Failed to append to the kit change feed", e);
+        }
+    }
+
+    private static void poll() {
+        if (!Kit.available() || !polling.compareAndSet(false, true)) return;
+
+        try {
+            long after = Math.max(0, cursor - overlap);
+
+            for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+                List<ChangeFeed.Change> changes = feed.read(after, batchSize);
+
+                for (ChangeFeed.Change change : changes) {
+                    after = change.id();
+                    if (!seen.add(change.id())) continue;
+
+                    if (!change.origin().equals(ORIGIN)) {
+                        KitCache.changed(change.playerUUID(), change.kitNumber(), change.version());
+                    }
+
+                    cursor = Math.max(cursor, change.id());
+                }
+
+                if (changes.size() < batchSize) break;
+            }
+
+            seen.headSet(cursor - overlap, true).clear();
+
+            long now = System.currentTimeMillis();
+            if (now - lastPrune >= retention) {
+                feed.prune(now - retention);
+                lastPrune = now;
+            }
+        } catch (RuntimeException e) {
+            Utils.plugin().getLogger().log(Level.WARNING, "Failed to read the kit change feed", e);
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    public static void close() {
+        if (task != null) {
+            task.cancel();
+        }
+
+        if (feed != null) {
+            feed.close();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.serializers.Serializers;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ships a player's cached kits to the next server when they switch servers through the proxy,
+ * so the destination doesn't have to load every kit from storage again.
+ * <p>
+ * The payload carries the kits in their stored form together with their versions. The destination only
+ * keeps kits whose version matches storage, anything else is loaded from storage as usual.
+ */
+public class KitHandoff implements Listener {
+    private static final byte FORMAT = 1;
+
+    /**
+     * Payloads for players that haven't joined within this time are dropped.
+     */
+    private static final long PENDING_TTL = 30_000;
+
+    private static final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private static CacheTransport transport;
+
+    private record Handoff(int kitNumber, long version, Map<Integer, ItemStack> contents) {
+
+    }
+
+    private record Encoded(int kitNumber, long version, String data) {
+
+    }
+
+    private record Pending(List<Handoff> kits, long receivedAt) {
+
+    }
+
+    public static void of() {
+        if (!Utils.plugin().getConfig().getBoolean("handoff.enabled", false)) return;
+
+        transport = Utils.plugin().getConfig().getString("handoff.transport", "plugin-message").equalsIgnoreCase("loopback")
+                ? new LoopbackTransport()
+                : new PluginMessageTransport();
+
+        transport.setup(KitHandoff::receive);
+    }
+
+    public static void close() {
+        if (transport != null) {
+            transport.close();
+            transport = null;
+        }
+
+        pending.clear();
+    }
+
+    /* Before KitCache forgets the player on MONITOR. */
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onQuit(PlayerQuitEvent event) {
+        if (transport == null) return;
+
+        Player player = event.getPlayer();
+        UUID uuid = player.getUniqueId();
+        Map<Integer, KitCache.Entry> kits = KitCache.snapshot(uuid.toString());
+        if (kits.isEmpty()) return;
+
+        // Serializing and compressing runs on the lane, only sending needs the main thread.
+        StorageLanes.lane(uuid.toString()).execute(() -> {
+            byte[] payload;
+
+            try {
+                payload = encode(uuid, kits);
+            } catch (IOException e) {
+                Utils.plugin().getLogger().log(Level.WARNING, "Failed to encode the kit handoff of " + uuid, e);
+                return;
+            }
+
+            PluginExecutors.sync().execute(() -> {
+                CacheTransport current = transport;
+                if (current != null) current.send(player, payload);
+            });
+        });
+    }
+
+    /* After KitCache started loading the player on LOWEST. */
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onJoin(PlayerJoinEvent event) {
+        String playerUUID = event.getPlayer().getUniqueId().toString();
+
+        Pending received = pending.remove(playerUUID);
+        if (received == null) return;
+
+        StorageLanes.lane(playerUUID).execute(() -> warm(playerUUID, received.kits()));
+    }
+
+    private static void receive(byte[] payload) {
+        long now = System.currentTimeMillis();
+        pending.values().removeIf(entry -> now - entry.receivedAt() > PENDING_TTL);
+
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            if (in.readByte() != FORMAT) return;
+
+            String playerUUID = new UUID(in.readLong(), in.readLong()).toString();
+            int count = in.readUnsignedByte();
+
+            List<Encoded> encoded = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                int kitNumber = in.readUnsignedByte();
+                long version = in.readLong();
+
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+
+                encoded.add(new Encoded(kitNumber, version, new String(bytes, StandardCharsets.UTF_8)));
+            }
+
+            // Decoding the items is the expensive part, keep it off the thread that received the message.
+            StorageLanes.lane(playerUUID).execute(() -> {
+                List<Handoff> kits = new ArrayList<>(count);
+
+                for (Encoded kit : encoded) {
+                    kits.add(new Handoff(kit.kitNumber(), kit.version(),
+                            Kit.sparse(Serializers.base64().deserializeItemStackMap(kit.data()))));
+                }
+
+                if (!warm(playerUUID, kits)) {
+                    // Not here yet, the proxy usually forwards before the player arrives.
+                    pending.put(playerUUID, new Pending(kits, System.currentTimeMillis()));
+                }
+            });
+        } catch (IOException e) {
+            Utils.plugin().getLogger().log(Level.WARNING, "Received a malformed kit handoff", e);
+        }
+    }
+
+    /**
+     * @return False if the player isn't on this server.
+     */
+    private static boolean warm(String playerUUID, List<Handoff> kits) {
+        for (Handoff kit : kits) {
+            if (!KitCache.warm(playerUUID, kit.kitNumber(), kit.contents(), kit.version())) return false;
+        }
+
+        return true;
+    }
+
+    private static byte[] encode(UUID uuid, Map<Integer, KitCache.Entry> kits) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(FORMAT);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            out.writeByte(kits.size());
+
+            for (Map.Entry<Integer, KitCache.Entry> kit : kits.entrySet()) {
+                byte[] data = Serializers.base64().serializeItemStacks(kit.getValue().contents())
+                        .getBytes(StandardCharsets.UTF_8);
+
+                out.writeByte(kit.getKey());
+                out.writeLong(kit.getValue().version());
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+}
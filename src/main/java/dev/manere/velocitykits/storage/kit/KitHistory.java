@@ -0,0 +1,234 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.serializers.Serializers;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Keeps the last {@code history.keep} revisions of every kit, so an accidental overwrite can be rolled back.
+ * <p>
+ * A revision only stores the slots that changed since the revision before it. That needs the previous contents,
+ * which are remembered per cached player after each save, and only trusted if the new version directly follows
+ * them. Anything else, like the first save after a join or an edit from another server, is stored in full.
+ * Rebuilding a revision starts at the closest full revision before it, so only the deltas in between are decoded.
+ * <p>
+ * Kits saved since the last run are pruned in the background, the oldest kept revision becomes the new full one.
+ */
+public class KitHistory {
+    /* A menu page. */
+    private static final int MAX_KEEP = 45;
+
+    private static final Map<String, Map<Integer, Latest>> latest = new ConcurrentHashMap<>();
+    private static final Set<KitKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private static boolean enabled;
+    private static int keep;
+    private static ScheduledTask pruning;
+
+    private record Latest(long id, Map<Integer, ItemStack> contents) {
+
+    }
+
+    private record KitKey(String playerUUID, int kitNumber) {
+
+    }
+
+    public static void of() {
+        enabled = Utils.plugin().getConfig().getBoolean("history.enabled", true);
+        keep = Math.max(1, Math.min(MAX_KEEP, Utils.plugin().getConfig().getInt("history.keep", 10)));
+
+        if (!enabled) return;
+
+        long interval = Math.max(1, Utils.plugin().getConfig().getLong("history.prune-interval-seconds", 300)) * 20;
+        pruning = PluginExecutors.timerAsync(KitHistory::prune, interval, interval);
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a saved kit. Runs on the player's lane right after the write, a failure only costs the revision.
+     *
+     * @param contents The sparse contents that were saved.
+     * @param data     The contents as they were serialized for storage.
+     */
+    static void record(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents, String data, long version) {
+        if (!enabled) return;
+
+        Map<Integer, Latest> kits = latest.get(playerUUID);
+        Latest previous = kits == null ? null : kits.remove(kitNumber);
+        long now = System.currentTimeMillis();
+        Revision revision;
+
+        if (previous != null && previous.id() == version - 1) {
+            Map<Integer, ItemStack> changed = new HashMap<>();
+            long changedSlots = 0;
+            long removedSlots = 0;
+
+            for (Map.Entry<Integer, ItemStack> entry : contents.entrySet()) {
+                if (!entry.getValue().equals(previous.contents().get(entry.getKey()))) {
+                    changed.put(entry.getKey(), entry.getValue());
+                    changedSlots |= 1L << entry.getKey();
+                }
+            }
+
+            for (int slot : previous.contents().keySet()) {
+                if (!contents.containsKey(slot)) removedSlots |= 1L << slot;
+            }
+
+            revision = new Revision(version, now, false, changedSlots, removedSlots, Serializers.base64().serializeItemStacks(changed));
+        } else {
+            revision = new Revision(version, now, true, slots(contents), 0, data);
+        }
+
+        try {
+            Kit.storage().writeRevision(playerUUID, kitNumber, revision);
+        } catch (RuntimeException e) {
+            // The next save is stored in full, it can't build on a revision that is missing.
+            Utils.plugin().getLogger().log(Level.FINE, "Failed to record a kit revision", e);
+            return;
+        }
+
+        dirty.add(new KitKey(playerUUID, kitNumber));
+
+        // Only kept for players on this server, everyone else is forgotten when they quit.
+        if (KitCache.cached(playerUUID)) {
+            Map<Integer, ItemStack> copy = new HashMap<>(contents.size());
+            contents.forEach((slot, item) -> copy.put(slot, item.clone()));
+
+            latest.computeIfAbsent(playerUUID, uuid -> new ConcurrentHashMap<>()).put(kitNumber, new Latest(version, copy));
+        }
+    }
+
+    /**
+     * Called when a kit is deleted, its next save starts with a full revision.
+     */
+    static void deleted(String playerUUID, int kitNumber) {
+        Map<Integer, Latest> kits = latest.get(playerUUID);
+        if (kits != null) kits.remove(kitNumber);
+    }
+
+    static void forget(String playerUUID) {
+        latest.remove(playerUUID);
+    }
+
+    /**
+     * @return The revisions of the kit, newest first. Nothing is decoded.
+     */
+    public static CompletableFuture<List<Revision>> revisions(String playerUUID, int kitNumber) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Revision> revisions = new ArrayList<>(Kit.storage().revisions(playerUUID, kitNumber));
+            Collections.reverse(revisions);
+            return revisions;
+        }, StorageLanes.lane(playerUUID));
+    }
+
+    /**
+     * @return The kit as it was saved at the revision, or null if there is no such revision anymore.
+     */
+    public static CompletableFuture<Map<Integer, ItemStack>> contents(String playerUUID, int kitNumber, long id) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Revision> revisions = Kit.storage().revisions(playerUUID, kitNumber);
+
+            for (int i = 0; i < revisions.size(); i++) {
+                if (revisions.get(i).id() == id) return contents(revisions, i);
+            }
+
+            return null;
+        }, StorageLanes.lane(playerUUID));
+    }
+
+    /**
+     * Saves the kit as it was at the revision, which is recorded as a new revision itself, so a restore can be undone.
+     *
+     * @return The result of the save, or null if there is no such revision anymore.
+     */
+    public static CompletableFuture<WriteResult> restore(String playerUUID, int kitNumber, long id) {
+        return contents(playerUUID, kitNumber, id).thenCompose(contents -> contents == null
+                ? CompletableFuture.completedFuture(null)
+                : Kit.saveAsync(playerUUID, kitNumber, contents));
+    }
+
+    /**
+     * Applies the deltas from the closest full revision up to {@code index}.
+     *
+     * @param revisions The kit's revisions, oldest first.
+     */
+    private static Map<Integer, ItemStack> contents(List<Revision> revisions, int index) {
+        int base = index;
+        while (base > 0 && !revisions.get(base).full()) base--;
+
+        Map<Integer, ItemStack> contents = new HashMap<>();
+
+        // Without a full revision the history started mid-way, the oldest slots are simply missing.
+        for (int i = base; i <= index; i++) {
+            Revision revision = revisions.get(i);
+
+            if (revision.full()) {
+                contents.clear();
+            } else {
+                contents.keySet().removeIf(slot -> (revision.removedSlots() & 1L << slot) != 0);
+            }
+
+            contents.putAll(Serializers.base64().deserializeItemStackMap(revision.data()));
+        }
+
+        return contents;
+    }
+
+    private static void prune() {
+        Iterator<KitKey> iterator = dirty.iterator();
+
+        while (iterator.hasNext()) {
+            KitKey key = iterator.next();
+            iterator.remove();
+
+            try {
+                prune(key.playerUUID(), key.kitNumber());
+            } catch (StorageUnavailableException e) {
+                dirty.add(key);
+                return;
+            } catch (RuntimeException e) {
+                Utils.plugin().getLogger().log(Level.WARNING, "Failed to prune the history of a kit", e);
+            }
+        }
+    }
+
+    /* The full revision is written before the older ones are deleted, so an interrupted prune loses nothing. */
+    private static void prune(String playerUUID, int kitNumber) {
+        List<Revision> revisions = Kit.storage().revisions(playerUUID, kitNumber);
+        if (revisions.size() <= keep) return;
+
+        int first = revisions.size() - keep;
+        Revision oldest = revisions.get(first);
+
+        if (!oldest.full()) {
+            Map<Integer, ItemStack> contents = contents(revisions, first);
+            Kit.storage().writeRevision(playerUUID, kitNumber, new Revision(oldest.id(), oldest.savedAt(), true,
+                    slots(contents), 0, Serializers.base64().serializeItemStacks(contents)));
+        }
+
+        Kit.storage().deleteRevisions(playerUUID, kitNumber, oldest.id());
+    }
+
+    private static long slots(Map<Integer, ItemStack> contents) {
+        long slots = 0;
+        for (int slot : contents.keySet()) slots |= 1L << slot;
+        return slots;
+    }
+
+    public static void close() {
+        if (pruning != null) {
+            pruning.cancel();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Resolves how many kits a player may use and which kit a command label refers to.
+ * <p>
+ * Every player gets {@code kits.default} kits, and {@code kits.permissions} can raise that per permission.
+ */
+public class KitSlots {
+    /**
+     * The amount of kits the main menu can lay out.
+     */
+    public static final int LIMIT = 28;
+
+    private static int defaultCount = 8;
+    private static Map<String, Integer> permissionCounts = Map.of();
+    private static Map<String, Integer> labels = Map.of();
+    private static int max = 8;
+
+    public static void of() {
+        ConfigurationSection config = Utils.plugin().getConfig();
+
+        defaultCount = clamp(config.getInt("kits.default", 8));
+
+        // A list of maps, permission nodes contain dots and can't be used as section keys.
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map<?, ?> entry : config.getMapList("kits.permissions")) {
+            Object permission = entry.get("permission");
+            Object amount = entry.get("amount");
+
+            if (permission != null && amount instanceof Number number) {
+                counts.put(permission.toString(), clamp(number.intValue()));
+            }
+        }
+        permissionCounts = Collections.unmodifiableMap(counts);
+
+        max = defaultCount;
+        for (int count : counts.values()) {
+            max = Math.max(max, count);
+        }
+
+        Map<String, Integer> byLabel = new HashMap<>();
+        for (int number = 1; number <= max; number++) {
+            byLabel.put("kit" + number, number);
+            byLabel.put("k" + number, number);
+        }
+        labels = Collections.unmodifiableMap(byLabel);
+    }
+
+    /**
+     * @return The highest kit number any player can have.
+     */
+    public static int max() {
+        return max;
+    }
+
+    /**
+     * @return The amount of kits the player can use.
+     */
+    public static int count(Player player) {
+        int count = defaultCount;
+
+        for (Map.Entry<String, Integer> entry : permissionCounts.entrySet()) {
+            if (entry.getValue() > count && player.hasPermission(entry.getKey())) {
+                count = entry.getValue();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return The kit number for a {@code kitN}/{@code kN} label, or -1 if the label is not a kit command.
+     */
+    public static int number(String label) {
+        return labels.getOrDefault(label.toLowerCase(Locale.ROOT), -1);
+    }
+
+    /**
+     * @return Every kit command label, for registering aliases.
+     */
+    public static List<String> labels() {
+        List<String> list = new ArrayList<>(labels.keySet());
+        list.sort(Comparator.comparingInt((String label) -> labels.get(label)).thenComparing(Comparator.reverseOrder()));
+        return list;
+    }
+
+    private static int clamp(int count) {
+        return Math.max(1, Math.min(LIMIT, count));
+    }
+}
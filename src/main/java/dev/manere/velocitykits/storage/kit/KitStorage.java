@@ -0,0 +1,86 @@
+package dev.manere.velocitykits.storage.kit;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A storage backend for serialized kits and the player name directory.
+ * <p>
+ * Implementations must be safe to call from several storage lanes at once,
+ * {@link Kit} makes sure operations for a single player never overlap.
+ */
+public interface KitStorage {
+    void setup();
+
+    /**
+     * @return The serialized kit, or null if the player has no kit under that number.
+     */
+    @Nullable
+    StoredKit read(String playerUUID, int kitNumber);
+
+    /**
+     * Writes the kit only if the stored version still is {@code expectedVersion} (compare-and-set).
+     *
+     * @param expectedVersion The version the caller last saw, {@code 0} if it expects no kit to exist.
+     */
+    WriteResult write(String playerUUID, int kitNumber, String data, long expectedVersion);
+
+    void delete(String playerUUID, int kitNumber);
+
+    /**
+     * @return The stored version of the kit without reading its contents, {@code 0} if there is none.
+     */
+    long version(String playerUUID, int kitNumber);
+
+    /**
+     * @return The version of every kit the player has saved, keyed by kit number.
+     */
+    Map<Integer, Long> versions(String playerUUID);
+
+    /**
+     * Visits every stored kit once. The visitor may be called from several threads at once.
+     */
+    void forEach(Visitor visitor);
+
+    /**
+     * Visits every known player UUID to name pair once. The visitor may be called from several threads at once.
+     */
+    void forEachName(NameVisitor visitor);
+
+    /**
+     * @return The UUID stored for the name, matched case-insensitively.
+     */
+    Optional<String> uuid(String name);
+
+    void saveName(String playerUUID, String name);
+
+    /**
+     * Stores a revision of the kit, replacing a revision with the same id.
+     */
+    void writeRevision(String playerUUID, int kitNumber, Revision revision);
+
+    /**
+     * @return The stored revisions of the kit, oldest first.
+     */
+    List<Revision> revisions(String playerUUID, int kitNumber);
+
+    /**
+     * Deletes the revisions of the kit older than the revision {@code id}.
+     */
+    void deleteRevisions(String playerUUID, int kitNumber, long id);
+
+    void close();
+
+    @FunctionalInterface
+    interface Visitor {
+        void accept(String playerUUID, int kitNumber, String data);
+    }
+
+    @FunctionalInterface
+    interface NameVisitor {
+        void accept(String playerUUID, String name);
+    }
+}
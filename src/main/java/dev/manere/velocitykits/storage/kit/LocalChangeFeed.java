@@ -0,0 +1,62 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process change feed for a single server, used with the YAML backend where no other server shares the kits.
+ */
+public class LocalChangeFeed implements ChangeFeed {
+    private final NavigableMap<Long, Entry> changes = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private record Entry(Change change, long createdAt) {
+
+    }
+
+    @Override
+    public void setup() {
+
+    }
+
+    @Override
+    public void append(String origin, String playerUUID, int kitNumber, long version) {
+        long id = ids.incrementAndGet();
+        changes.put(id, new Entry(new Change(id, origin, playerUUID, kitNumber, version), System.currentTimeMillis()));
+    }
+
+    @Override
+    public long head() {
+        return ids.get();
+    }
+
+    @Override
+    public List<Change> read(long afterId, int limit) {
+        List<Change> read = new ArrayList<>(Math.min(limit, 64));
+
+        for (Entry entry : changes.tailMap(afterId, false).values()) {
+            if (read.size() >= limit) break;
+            read.add(entry.change());
+        }
+
+        return read;
+    }
+
+    @Override
+    public void prune(long before) {
+        for (Map.Entry<Long, Entry> entry : changes.entrySet()) {
+            // Ids grow with time, so everything after the first kept change is newer.
+            if (entry.getValue().createdAt() >= before) break;
+            changes.remove(entry.getKey());
+        }
+    }
+
+    @Override
+    public void close() {
+        changes.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package dev.manere.velocitykits.storage.kit;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Hands payloads straight back to this server's receiver, a stand-in for a proxy with a single backend.
+ */
+public class LoopbackTransport implements CacheTransport {
+    private Receiver receiver;
+
+    @Override
+    public void setup(Receiver receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public boolean send(Player player, byte[] payload) {
+        if (receiver == null) return false;
+
+        receiver.receive(payload);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One step of the MySQL schema, applied once per database by the {@link SchemaMigrator}.
+ * Steps must be safe to run again if a previous attempt was interrupted.
+ *
+ * @param version     The schema version after this step, steps run in ascending order.
+ * @param description What the step changes, stored alongside the version.
+ */
+public record Migration(int version, String description, Step step) {
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+}
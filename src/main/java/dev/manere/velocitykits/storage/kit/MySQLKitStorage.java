@@ -0,0 +1,745 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.sql.connection.SQLConnector;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * MySQL backend, optionally sharded by player UUID over the databases listed in {@code sql.shards}.
+ * <p>
+ * Every player lives on exactly one shard, picked by a {@link ShardRouter}. Queries that span every player
+ * are fanned out to all shards in parallel. After adding a shard, {@link #rebalance(Consumer)} moves the
+ * players the new shard now owns. Every server learns that a rebalance runs from a lease in {@code velocity_rebalance},
+ * and retries reads that miss on a player's shard on every shard until it ends.
+ * <p>
+ * Kit contents are read from a shard's read replicas when it has any, writes and version reads always go to its
+ * primary. For {@code sql.read-your-writes} milliseconds after a write, contents of that player are read from the
+ * primary as well.
+ */
+public class MySQLKitStorage implements KitStorage {
+    private static final int REBALANCE_PAGE = 500;
+
+    /* How often every server reads the rebalance lease, and how long a lease lasts without being renewed. */
+    private static final long REBALANCE_POLL_SECONDS = 5;
+    private static final long REBALANCE_LEASE = 60_000;
+
+    /* The {@code sql} section, read from the config on setup when null. */
+    private ConfigurationSection settings;
+
+    private ShardRouter<Shard> router;
+    private ExecutorService fanOut;
+    private ScheduledTask healthCheck;
+    private ScheduledTask rebalancePoll;
+    private long stickiness;
+
+    /* Players read from the primary until the given time, in millis. */
+    private final Map<String, Long> sticky = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean rebalancing = new AtomicBoolean();
+
+    /* The lease of a rebalance on any server, as last read. */
+    private volatile long rebalanceUntil;
+
+    private record Row(String playerUUID, int kitNumber, String contents, long version) {
+
+    }
+
+    public MySQLKitStorage() {
+
+    }
+
+    /**
+     * @param settings Used instead of the {@code sql} section, like for the scratch database of a load test.
+     */
+    public MySQLKitStorage(ConfigurationSection settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void setup() {
+        ConfigurationSection sql = settings == null ? Utils.plugin().getConfig().getConfigurationSection("sql") : settings;
+        if (sql == null) sql = new MemoryConfiguration();
+
+        int poolSize = sql.getInt("pool-size", 4);
+        stickiness = sql.getLong("read-your-writes", 2000);
+
+        Map<String, Shard> shards = new LinkedHashMap<>();
+
+        for (Map<?, ?> shard : sql.getMapList("shards")) {
+            ConfigurationSection settings = settings(sql, shard);
+            String name = settings.getString("name", "shard-" + (shards.size() + 1));
+
+            shards.put(name, shard(name, settings, poolSize));
+        }
+
+        if (shards.isEmpty()) {
+            shards.put("primary", shard("primary", sql, poolSize));
+        }
+
+        router = new ShardRouter<>(shards);
+
+        if (router.shards().stream().anyMatch(Shard::replicated)) {
+            long interval = Math.max(1, sql.getLong("replica-health-interval", 5)) * 20;
+            healthCheck = PluginExecutors.timerAsync(this::checkReplicas, interval, interval);
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        fanOut = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "VelocityKits Shard Fan-out #" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (Shard shard : router.shards()) {
+            shard.primary().with(connection -> {
+                SchemaMigrator.migrate(connection, shard.name());
+                return null;
+            });
+        }
+
+        // Read once right away, a server started during a rebalance must not miss it.
+        pollRebalance();
+
+        long interval = REBALANCE_POLL_SECONDS * 20;
+        rebalancePoll = PluginExecutors.timerAsync(this::pollRebalance, interval, interval);
+    }
+
+    /**
+     * @return The connection settings of the base, overridden by whatever the map sets.
+     */
+    private static ConfigurationSection settings(ConfigurationSection base, Map<?, ?> overrides) {
+        ConfigurationSection settings = new MemoryConfiguration();
+
+        for (String key : List.of("host", "port", "username", "password", "database")) {
+            settings.set(key, base.get(key));
+        }
+
+        overrides.forEach((key, value) -> settings.set(String.valueOf(key), value));
+        return settings;
+    }
+
+    /**
+     * @param settings The shard's primary, with its {@code replicas} as a list of connection settings.
+     */
+    private static Shard shard(String name, ConfigurationSection settings, int poolSize) {
+        ConnectionPool primary = new ConnectionPool(name, () -> connect(settings), poolSize);
+        List<ConnectionPool> replicas = new ArrayList<>();
+
+        for (Map<?, ?> replica : settings.getMapList("replicas")) {
+            ConfigurationSection replicaSettings = settings(settings, replica);
+            String replicaName = name + "/" + replicaSettings.getString("host");
+
+            replicas.add(new ConnectionPool(replicaName, () -> connect(replicaSettings), poolSize));
+        }
+
+        return new Shard(name, primary, replicas);
+    }
+
+    private void checkReplicas() {
+        router.shards().forEach(Shard::checkReplicas);
+
+        long now = System.currentTimeMillis();
+        sticky.values().removeIf(until -> until <= now);
+    }
+
+    /**
+     * @return A new connection to the database configured under {@code sql}, which also holds the change feed.
+     */
+    static Connection connect() {
+        ConfigurationSection sql = Utils.plugin().getConfig().getConfigurationSection("sql");
+        if (sql == null) sql = new MemoryConfiguration();
+
+        return connect(sql);
+    }
+
+    private static Connection connect(ConfigurationSection settings) {
+        return SQLConnector.of()
+                .authentication()
+                .host(settings.getString("host"))
+                .port(settings.getInt("port"))
+                .username(settings.getString("username"))
+                .password(settings.getString("password"))
+                .database(settings.getString("database"))
+                .build()
+                .connect();
+    }
+
+    private ConnectionPool primary(String playerUUID) {
+        return router.route(playerUUID).primary();
+    }
+
+    /**
+     * Runs a read-only query for the player, on a replica unless the player wrote recently.
+     */
+    private <T> T read(String playerUUID, ConnectionPool.Query<T> query) {
+        Long until = sticky.get(playerUUID);
+
+        if (until != null && until > System.currentTimeMillis()) {
+            return primary(playerUUID).with(query);
+        }
+
+        return router.route(playerUUID).read(query);
+    }
+
+    /**
+     * Runs a write for the player on its primary, and keeps the player's reads there for a while.
+     */
+    private <T> T write(String playerUUID, ConnectionPool.Query<T> query) {
+        Shard shard = router.route(playerUUID);
+
+        if (stickiness > 0 && shard.replicated()) {
+            sticky.put(playerUUID, System.currentTimeMillis() + stickiness);
+        }
+
+        return shard.primary().with(query);
+    }
+
+    /**
+     * Runs the read-only query on every shard in parallel.
+     *
+     * @return The results, in shard order.
+     */
+    private <T> List<T> fanOut(ConnectionPool.Query<T> query) {
+        return fanOut(query, false);
+    }
+
+    /**
+     * @param primary Whether to run the query on the primaries, required for writes.
+     */
+    private <T> List<T> fanOut(ConnectionPool.Query<T> query, boolean primary) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+
+        for (Shard shard : router.shards()) {
+            futures.add(CompletableFuture.supplyAsync(() -> primary ? shard.primary().with(query) : shard.read(query), fanOut));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+
+        return results;
+    }
+
+    @Override
+    public StoredKit read(String playerUUID, int kitNumber) {
+        StoredKit stored = read(playerUUID, connection -> read(connection, playerUUID, kitNumber));
+        if (stored != null || !rebalancing()) return stored;
+
+        // The player might not have been moved to their new shard yet.
+        return fanOut(connection -> read(connection, playerUUID, kitNumber)).stream()
+                .filter(Objects::nonNull)
+                .max(Comparator.comparingLong(StoredKit::version))
+                .orElse(null);
+    }
+
+    private static StoredKit read(Connection connection, String playerUUID, int kitNumber) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT contents, version FROM velocity_kits WHERE player_uuid = ? AND kit_number = ?")) {
+            stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+            stmt.setInt(2, kitNumber);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new StoredKit(BinaryColumns.contents(rs.getBytes("contents")), rs.getLong("version")) : null;
+            }
+        }
+    }
+
+    @Override
+    public WriteResult write(String playerUUID, int kitNumber, String data, long expectedVersion) {
+        return write(playerUUID, connection -> {
+            if (expectedVersion == 0) {
+                // New rows start at the current time, so a kit that was deleted and created again never reuses an old version.
+                long version = System.currentTimeMillis();
+
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO velocity_kits (player_uuid, kit_number, contents, version) VALUES (?, ?, ?, ?)")) {
+                    stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                    stmt.setInt(2, kitNumber);
+                    stmt.setBytes(3, BinaryColumns.contents(data));
+                    stmt.setLong(4, version);
+                    stmt.executeUpdate();
+
+                    return WriteResult.saved(version);
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    return WriteResult.conflict(version(connection, playerUUID, kitNumber));
+                }
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE velocity_kits SET contents = ?, version = version + 1 " +
+                            "WHERE player_uuid = ? AND kit_number = ? AND version = ?")) {
+                stmt.setBytes(1, BinaryColumns.contents(data));
+                stmt.setBytes(2, BinaryColumns.uuid(playerUUID));
+                stmt.setInt(3, kitNumber);
+                stmt.setLong(4, expectedVersion);
+
+                return stmt.executeUpdate() == 1
+                        ? WriteResult.saved(expectedVersion + 1)
+                        : WriteResult.conflict(version(connection, playerUUID, kitNumber));
+            }
+        });
+    }
+
+    @Override
+    public void delete(String playerUUID, int kitNumber) {
+        ConnectionPool.Query<Void> delete = connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM velocity_kits WHERE player_uuid = ? AND kit_number = ?")) {
+                stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                stmt.setInt(2, kitNumber);
+                stmt.executeUpdate();
+            }
+            return null;
+        };
+
+        if (rebalancing()) {
+            // Also drops a copy still waiting to be moved, it would otherwise come back.
+            fanOut(delete, true);
+        } else {
+            write(playerUUID, delete);
+        }
+    }
+
+    /**
+     * Always asks the primary, versions decide compare-and-set writes and a lagging replica would make them conflict.
+     */
+    @Override
+    public long version(String playerUUID, int kitNumber) {
+        long version = primary(playerUUID).with(connection -> version(connection, playerUUID, kitNumber));
+        if (version != 0 || !rebalancing()) return version;
+
+        return fanOut(connection -> version(connection, playerUUID, kitNumber), true).stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+    }
+
+    private static long version(Connection connection, String playerUUID, int kitNumber) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT version FROM velocity_kits WHERE player_uuid = ? AND kit_number = ?")) {
+            stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+            stmt.setInt(2, kitNumber);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong("version") : 0;
+            }
+        }
+    }
+
+    /**
+     * Asks the primary like {@link #version(String, int)}, the cache checks its writes against these versions.
+     */
+    @Override
+    public Map<Integer, Long> versions(String playerUUID) {
+        if (!rebalancing()) {
+            return primary(playerUUID).with(connection -> versions(connection, playerUUID));
+        }
+
+        Map<Integer, Long> versions = new TreeMap<>();
+        for (Map<Integer, Long> shard : fanOut(connection -> versions(connection, playerUUID), true)) {
+            shard.forEach((kitNumber, version) -> versions.merge(kitNumber, version, Math::max));
+        }
+
+        return versions;
+    }
+
+    private static Map<Integer, Long> versions(Connection connection, String playerUUID) throws SQLException {
+        Map<Integer, Long> versions = new TreeMap<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT kit_number, version FROM velocity_kits WHERE player_uuid = ?")) {
+            stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    versions.put(rs.getInt("kit_number"), rs.getLong("version"));
+                }
+            }
+        }
+
+        return versions;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        fanOut(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT player_uuid, kit_number, contents FROM velocity_kits",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Streams rows one by one instead of buffering the whole table, so backups don't need the table in memory.
+                stmt.setFetchSize(Integer.MIN_VALUE);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.accept(BinaryColumns.uuid(rs.getBytes("player_uuid")), rs.getInt("kit_number"), BinaryColumns.contents(rs.getBytes("contents")));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void writeRevision(String playerUUID, int kitNumber, Revision revision) {
+        write(playerUUID, connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "REPLACE INTO velocity_kit_revisions (player_uuid, kit_number, revision, saved_at, full_snapshot, changed_slots, removed_slots, contents) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                stmt.setInt(2, kitNumber);
+                stmt.setLong(3, revision.id());
+                stmt.setLong(4, revision.savedAt());
+                stmt.setBoolean(5, revision.full());
+                stmt.setLong(6, revision.changedSlots());
+                stmt.setLong(7, revision.removedSlots());
+                stmt.setBytes(8, BinaryColumns.contents(revision.data()));
+                stmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /* Asks every primary, a rebalance doesn't move history, so a moved player's older revisions stay on their old shard. */
+    @Override
+    public List<Revision> revisions(String playerUUID, int kitNumber) {
+        Map<Long, Revision> revisions = new TreeMap<>();
+
+        List<List<Revision>> shards = fanOut(connection -> {
+            List<Revision> shardRevisions = new ArrayList<>();
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT revision, saved_at, full_snapshot, changed_slots, removed_slots, contents FROM velocity_kit_revisions " +
+                            "WHERE player_uuid = ? AND kit_number = ?")) {
+                stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                stmt.setInt(2, kitNumber);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        shardRevisions.add(new Revision(rs.getLong("revision"), rs.getLong("saved_at"), rs.getBoolean("full_snapshot"),
+                                rs.getLong("changed_slots"), rs.getLong("removed_slots"), BinaryColumns.contents(rs.getBytes("contents"))));
+                    }
+                }
+            }
+
+            return shardRevisions;
+        }, true);
+
+        shards.forEach(shard -> shard.forEach(revision -> revisions.put(revision.id(), revision)));
+        return new ArrayList<>(revisions.values());
+    }
+
+    @Override
+    public void deleteRevisions(String playerUUID, int kitNumber, long id) {
+        fanOut(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM velocity_kit_revisions WHERE player_uuid = ? AND kit_number = ? AND revision < ?")) {
+                stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                stmt.setInt(2, kitNumber);
+                stmt.setLong(3, id);
+                stmt.executeUpdate();
+            }
+            return null;
+        }, true);
+    }
+
+    @Override
+    public void forEachName(NameVisitor visitor) {
+        fanOut(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT player_uuid, name FROM velocity_players",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.accept(BinaryColumns.uuid(rs.getBytes("player_uuid")), rs.getString("name"));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> uuid(String name) {
+        // The default collation compares case-insensitively, so the name index is used.
+        return fanOut(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT player_uuid FROM velocity_players WHERE name = ? LIMIT 1")) {
+                stmt.setString(1, name);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? Optional.of(BinaryColumns.uuid(rs.getBytes("player_uuid"))) : Optional.<String>empty();
+                }
+            }
+        }).stream().flatMap(Optional::stream).findFirst();
+    }
+
+    @Override
+    public void saveName(String playerUUID, String name) {
+        write(playerUUID, connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO velocity_players (player_uuid, name) VALUES (?, ?) ON DUPLICATE KEY UPDATE name = ?")) {
+                stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                stmt.setString(2, name);
+                stmt.setString(3, name);
+                stmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return Whether a rebalance may be running on any server, reads that miss are then retried on every shard.
+     */
+    private boolean rebalancing() {
+        return rebalancing.get() || rebalanceUntil > System.currentTimeMillis();
+    }
+
+    private void pollRebalance() {
+        try {
+            rebalanceUntil = fanOut(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement("SELECT lease_until FROM velocity_rebalance WHERE id = 1");
+                     ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            }, true).stream().mapToLong(Long::longValue).max().orElse(0);
+        } catch (RuntimeException e) {
+            // Can't tell whether a rebalance started, so behave as if one did until the next poll.
+            rebalanceUntil = System.currentTimeMillis() + REBALANCE_POLL_SECONDS * 2000;
+        }
+    }
+
+    /**
+     * Sets the lease on every primary, so it is found whichever shards a server can reach.
+     *
+     * @param until When the lease ends, in millis, {@code 0} to end it now.
+     */
+    private void lease(long until) {
+        fanOut(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("UPDATE velocity_rebalance SET lease_until = ? WHERE id = 1")) {
+                stmt.setLong(1, until);
+                stmt.executeUpdate();
+            }
+            return null;
+        }, true);
+    }
+
+    /**
+     * Moves every kit and name that is stored on another shard than the one its player routes to.
+     * Rows are copied before they are deleted, and a copy never replaces a newer version on the target.
+     * <p>
+     * A lease is taken first, and rows only start moving once every server has had the time to read it.
+     * Until the lease ends, reads that miss on a player's shard are retried on every shard, on every server.
+     * The lease is renewed while this runs, so a server that crashes mid-way only holds it for a minute.
+     *
+     * @param progress Receives a line per shard.
+     * @return The amount of rows moved.
+     */
+    public long rebalance(Consumer<String> progress) {
+        if (!rebalancing.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rebalance is already running.");
+        }
+
+        ScheduledTask renewal = null;
+
+        try {
+            pollRebalance();
+
+            if (rebalanceUntil > System.currentTimeMillis()) {
+                throw new IllegalStateException("A rebalance is already running on another server.");
+            }
+
+            lease(System.currentTimeMillis() + REBALANCE_LEASE);
+
+            // Renewed three times per lease, in ticks.
+            long interval = REBALANCE_LEASE / 3 / 50;
+            renewal = PluginExecutors.timerAsync(() -> lease(System.currentTimeMillis() + REBALANCE_LEASE), interval, interval);
+
+            progress.accept("Waiting for every server to see the rebalance...");
+
+            try {
+                Thread.sleep(REBALANCE_POLL_SECONDS * 2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted before any rows were moved.");
+            }
+
+            long moved = 0;
+
+            for (Shard source : router.shards()) {
+                long kits = source.primary().with(connection -> moveKits(connection, source));
+                long names = source.primary().with(connection -> moveNames(connection, source));
+
+                moved += kits + names;
+                progress.accept(source.name() + ": moved " + kits + " kits and " + names + " names");
+            }
+
+            return moved;
+        } finally {
+            if (renewal != null) {
+                renewal.cancel();
+
+                try {
+                    lease(0);
+                } catch (RuntimeException e) {
+                    Utils.plugin().getLogger().log(Level.WARNING, "Failed to end the rebalance lease, it runs out on its own", e);
+                }
+            }
+
+            rebalancing.set(false);
+        }
+    }
+
+    private long moveKits(Connection connection, Shard source) throws SQLException {
+        long moved = 0;
+        String lastUUID = "";
+        int lastKit = -1;
+
+        while (true) {
+            List<Row> misplaced = new ArrayList<>();
+            int read = 0;
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, kit_number, contents, version FROM velocity_kits " +
+                            "WHERE (player_uuid, kit_number) > (?, ?) ORDER BY player_uuid, kit_number LIMIT ?")) {
+                stmt.setBytes(1, lastUUID.isEmpty() ? new byte[0] : BinaryColumns.uuid(lastUUID));
+                stmt.setInt(2, lastKit);
+                stmt.setInt(3, REBALANCE_PAGE);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        lastUUID = BinaryColumns.uuid(rs.getBytes("player_uuid"));
+                        lastKit = rs.getInt("kit_number");
+
+                        if (router.route(lastUUID) != source) {
+                            misplaced.add(new Row(lastUUID, lastKit, BinaryColumns.contents(rs.getBytes("contents")), rs.getLong("version")));
+                        }
+                    }
+                }
+            }
+
+            for (Row row : misplaced) {
+                primary(row.playerUUID()).with(target -> {
+                    // Assignments run left to right, so contents still compares against the old version.
+                    try (PreparedStatement stmt = target.prepareStatement(
+                            "INSERT INTO velocity_kits (player_uuid, kit_number, contents, version) VALUES (?, ?, ?, ?) " +
+                                    "ON DUPLICATE KEY UPDATE contents = IF(VALUES(version) > version, VALUES(contents), contents), " +
+                                    "version = GREATEST(version, VALUES(version))")) {
+                        stmt.setBytes(1, BinaryColumns.uuid(row.playerUUID()));
+                        stmt.setInt(2, row.kitNumber());
+                        stmt.setBytes(3, BinaryColumns.contents(row.contents()));
+                        stmt.setLong(4, row.version());
+                        stmt.executeUpdate();
+                    }
+                    return null;
+                });
+
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "DELETE FROM velocity_kits WHERE player_uuid = ? AND kit_number = ? AND version = ?")) {
+                    stmt.setBytes(1, BinaryColumns.uuid(row.playerUUID()));
+                    stmt.setInt(2, row.kitNumber());
+                    stmt.setLong(3, row.version());
+                    moved += stmt.executeUpdate();
+                }
+            }
+
+            if (read < REBALANCE_PAGE) return moved;
+        }
+    }
+
+    /* Paged like moveKits, every page is copied with one batch per target shard. */
+    private long moveNames(Connection connection, Shard source) throws SQLException {
+        long moved = 0;
+        byte[] lastUUID = new byte[0];
+
+        while (true) {
+            Map<Shard, Map<String, String>> misplaced = new HashMap<>();
+            int read = 0;
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, name FROM velocity_players WHERE player_uuid > ? ORDER BY player_uuid LIMIT ?")) {
+                stmt.setBytes(1, lastUUID);
+                stmt.setInt(2, REBALANCE_PAGE);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        lastUUID = rs.getBytes("player_uuid");
+
+                        String playerUUID = BinaryColumns.uuid(lastUUID);
+                        Shard target = router.route(playerUUID);
+
+                        if (target != source) {
+                            misplaced.computeIfAbsent(target, shard -> new LinkedHashMap<>()).put(playerUUID, rs.getString("name"));
+                        }
+                    }
+                }
+            }
+
+            for (Map.Entry<Shard, Map<String, String>> entry : misplaced.entrySet()) {
+                Map<String, String> names = entry.getValue();
+
+                entry.getKey().primary().with(target -> {
+                    // A name saved on the new shard in the meantime is newer, keep it.
+                    try (PreparedStatement stmt = target.prepareStatement(
+                            "INSERT IGNORE INTO velocity_players (player_uuid, name) VALUES (?, ?)")) {
+                        for (Map.Entry<String, String> name : names.entrySet()) {
+                            stmt.setBytes(1, BinaryColumns.uuid(name.getKey()));
+                            stmt.setString(2, name.getValue());
+                            stmt.addBatch();
+                        }
+
+                        stmt.executeBatch();
+                    }
+                    return null;
+                });
+
+                try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM velocity_players WHERE player_uuid = ?")) {
+                    for (String playerUUID : names.keySet()) {
+                        stmt.setBytes(1, BinaryColumns.uuid(playerUUID));
+                        stmt.addBatch();
+                    }
+
+                    for (int deleted : stmt.executeBatch()) {
+                        moved += Math.max(0, deleted);
+                    }
+                }
+            }
+
+            if (read < REBALANCE_PAGE) return moved;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthCheck != null) {
+            healthCheck.cancel();
+        }
+
+        if (rebalancePoll != null) {
+            rebalancePoll.cancel();
+        }
+
+        if (fanOut != null) {
+            fanOut.shutdownNow();
+        }
+
+        if (router != null) {
+            router.shards().forEach(Shard::close);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.velocitykits.metrics.Metrics;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.logging.Level;
+
+/**
+ * Sends payloads through the proxy using the {@code BungeeCord} channel's {@code ForwardToPlayer} message,
+ * which Velocity supports with {@code bungee-plugin-message-channel} enabled. The proxy delivers it only to
+ * the server the leaving player switched to, and drops it if they left the network.
+ * <p>
+ * Plugin messages need a connected player to travel on. The leaving player is already gone when the
+ * payload is sent, so it goes out through another player. Payloads that can't be sent are counted
+ * in {@link Metrics}, the destination simply loads the kits from storage.
+ */
+public class PluginMessageTransport implements CacheTransport, PluginMessageListener {
+    private static final String CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "VelocityKitsCache";
+
+    /**
+     * Forwarded data is length-prefixed with a short.
+     */
+    private static final int MAX_PAYLOAD = Short.MAX_VALUE;
+
+    private Receiver receiver;
+
+    @Override
+    public void setup(Receiver receiver) {
+        this.receiver = receiver;
+
+        Bukkit.getMessenger().registerOutgoingPluginChannel(Utils.plugin(), CHANNEL);
+        Bukkit.getMessenger().registerIncomingPluginChannel(Utils.plugin(), CHANNEL, this);
+    }
+
+    @Override
+    public boolean send(Player player, byte[] payload) {
+        if (payload.length > MAX_PAYLOAD) {
+            Metrics.increment(Metrics.Counter.HANDOFFS_OVERSIZED);
+            Utils.plugin().getLogger().log(Level.FINE, "Dropped the kit handoff of " + player.getName()
+                    + ", " + payload.length + " bytes is over the plugin message limit.");
+            return false;
+        }
+
+        Player carrier = null;
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            if (!online.equals(player)) {
+                carrier = online;
+                break;
+            }
+        }
+
+        if (carrier == null) {
+            Metrics.increment(Metrics.Counter.HANDOFFS_NO_CARRIER);
+            return false;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("ForwardToPlayer");
+            out.writeUTF(player.getName());
+            out.writeUTF(SUBCHANNEL);
+            out.writeShort(payload.length);
+            out.write(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        carrier.sendPluginMessage(Utils.plugin(), CHANNEL, bytes.toByteArray());
+        Metrics.increment(Metrics.Counter.HANDOFFS_SENT);
+        return true;
+    }
+
+    @Override
+    public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, byte @NotNull [] message) {
+        if (!channel.equals(CHANNEL) || receiver == null) return;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (!in.readUTF().equals(SUBCHANNEL)) return;
+
+            byte[] payload = new byte[in.readUnsignedShort()];
+            in.readFully(payload);
+
+            receiver.receive(payload);
+        } catch (IOException ignored) {
+            /* Some other plugin's message */
+        }
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+
+        Bukkit.getMessenger().unregisterOutgoingPluginChannel(Utils.plugin(), CHANNEL);
+        Bukkit.getMessenger().unregisterIncomingPluginChannel(Utils.plugin(), CHANNEL, this);
+    }
+}
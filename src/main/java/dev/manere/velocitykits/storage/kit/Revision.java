@@ -0,0 +1,22 @@
+package dev.manere.velocitykits.storage.kit;
+
+/**
+ * One entry of a kit's history, see {@link KitHistory}. A full revision holds the whole kit,
+ * any other revision only the slots that changed since the revision right before it.
+ * Slots are kept as bitmasks, every kit slot fits into a long.
+ *
+ * @param id           The kit version the revision was saved as, ascending.
+ * @param savedAt      When the revision was saved, in millis.
+ * @param full         Whether the revision holds the whole kit instead of a delta.
+ * @param changedSlots The slots {@code data} holds items for.
+ * @param removedSlots The slots that were emptied, always {@code 0} for full revisions.
+ * @param data         The serialized items of the changed slots.
+ */
+public record Revision(long id, long savedAt, boolean full, long changedSlots, long removedSlots, String data) {
+    /**
+     * @return The amount of slots this revision changed, or held if it is full.
+     */
+    public int changes() {
+        return Long.bitCount(changedSlots | removedSlots);
+    }
+}
@@ -0,0 +1,102 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change feed backed by the {@code velocity_kits_changes} table. Rows are only ever inserted and pruned,
+ * readers keep their own cursor and read by primary key range, so tailing stays cheap however many servers follow it.
+ * <p>
+ * Every call borrows its own connection, appends come from all storage lanes at once.
+ */
+public class SQLChangeFeed implements ChangeFeed {
+    private ConnectionPool pool;
+
+    @Override
+    public void setup() {
+        pool = new ConnectionPool("change feed", MySQLKitStorage::connect,
+                Utils.plugin().getConfig().getInt("sql.pool-size", 4));
+
+        pool.with(connection -> {
+            SchemaMigrator.migrateFeed(connection);
+            return null;
+        });
+    }
+
+    @Override
+    public void append(String origin, String playerUUID, int kitNumber, long version) {
+        pool.with(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO velocity_kits_changes (origin, player_uuid, kit_number, version, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                stmt.setBytes(1, BinaryColumns.uuid(origin));
+                stmt.setBytes(2, BinaryColumns.uuid(playerUUID));
+                stmt.setInt(3, kitNumber);
+                stmt.setLong(4, version);
+                stmt.setLong(5, System.currentTimeMillis());
+                stmt.executeUpdate();
+            }
+
+            return null;
+        });
+    }
+
+    @Override
+    public long head() {
+        return pool.with(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT MAX(id) FROM velocity_kits_changes");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    @Override
+    public List<Change> read(long afterId, int limit) {
+        return pool.with(connection -> {
+            List<Change> changes = new ArrayList<>();
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT id, origin, player_uuid, kit_number, version FROM velocity_kits_changes WHERE id > ? ORDER BY id LIMIT ?")) {
+                stmt.setLong(1, afterId);
+                stmt.setInt(2, limit);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        changes.add(new Change(
+                                rs.getLong("id"),
+                                BinaryColumns.uuid(rs.getBytes("origin")),
+                                BinaryColumns.uuid(rs.getBytes("player_uuid")),
+                                rs.getInt("kit_number"),
+                                rs.getLong("version")
+                        ));
+                    }
+                }
+            }
+
+            return changes;
+        });
+    }
+
+    @Override
+    public void prune(long before) {
+        pool.with(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM velocity_kits_changes WHERE created_at < ?")) {
+                stmt.setLong(1, before);
+                stmt.executeUpdate();
+            }
+
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
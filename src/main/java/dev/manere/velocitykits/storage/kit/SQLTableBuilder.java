@@ -11,6 +11,7 @@ import java.util.List;
 public class SQLTableBuilder {
     private String tableName;
     private final List<Column> columns = new ArrayList<>();
+    private final List<String> indexes = new ArrayList<>();
 
     /**
      * Constructs and returns a new instance of SQLTableBuilder.
@@ -46,6 +47,17 @@ public class SQLTableBuilder {
         return this;
     }
 
+    /**
+     * Adds a secondary (non-unique) index on the given column.
+     *
+     * @param column The name of the column to index.
+     * @return The current instance of SQLTableBuilder.
+     */
+    public SQLTableBuilder index(String column) {
+        indexes.add(column);
+        return this;
+    }
+
     /**
      * Builds and returns the SQL query for creating the table.
      *
@@ -77,11 +89,34 @@ public class SQLTableBuilder {
             query.append(")");
         }
 
+        for (String index : indexes) {
+            query.append(", INDEX idx_").append(index).append(" (").append(index).append(")");
+        }
+
         query.append(")");
 
         return query.toString();
     }
 
+    /**
+     * Builds and returns the SQL query adding the columns to an existing table, for migrations.
+     * Primary key flags and indexes are ignored.
+     *
+     * @return A String representing the SQL alter table query.
+     */
+    public String buildAlter() {
+        StringBuilder query = new StringBuilder("ALTER TABLE ");
+        query.append(tableName).append(" ");
+
+        for (Column column : columns) {
+            query.append("ADD COLUMN ").append(column.name()).append(" ").append(column.type()).append(", ");
+        }
+
+        query.setLength(query.length() - 2); // Remove the last comma and space
+
+        return query.toString();
+    }
+
     /**
      * A record representing a column in the table.
      */
@@ -0,0 +1,441 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.utils.sql.enums.PrimaryColumn;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Brings a database up to the latest schema. Applied versions are recorded in {@code velocity_schema},
+ * and a named lock keeps servers that start at the same time from migrating the same database twice.
+ * <p>
+ * Data conversions copy rows in batches by primary key into a new table and swap it in with a single rename,
+ * so the old table stays readable and writable while they run.
+ * <p>
+ * A conversion changes the column types, and servers still running an older version can't write to the new
+ * table once it is swapped in. Every server using the database has to be updated before the first one starts
+ * with the new version, the copy only catches up on what they changed until the swap.
+ * <p>
+ * The tables a conversion replaces are kept as {@code *_legacy}, they still hold rows that couldn't be converted
+ * and are the way back should the new version have to be rolled back. Nothing drops them: once every server runs the
+ * new version and the kits check out, drop {@code velocity_kits_legacy} and {@code velocity_players_legacy} by hand.
+ * The change feed's old table is dropped right away, it only ever holds the last minutes of changes.
+ * <p>
+ * The change feed can live in a database without any kits, so it is versioned on its own, in {@code velocity_feed_schema}.
+ */
+public class SchemaMigrator {
+    private static final String LOCK = "velocity_kits_schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    private static final int BATCH = 1000;
+
+    private record KitRow(String playerUUID, int kitNumber, String contents, long version) {
+
+    }
+
+    private record PlayerRow(String playerUUID, String name) {
+
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Kit and player tables", SchemaMigrator::initial),
+            new Migration(2, "Binary UUID keys and blob contents", SchemaMigrator::binary),
+            new Migration(3, "Kit revision history", SchemaMigrator::revisions),
+            new Migration(4, "Shared rebalance lease", SchemaMigrator::rebalance)
+    );
+
+    private static final List<Migration> FEED_MIGRATIONS = List.of(
+            new Migration(1, "Change feed table", SchemaMigrator::feed),
+            new Migration(2, "Binary UUIDs in the change feed", SchemaMigrator::binaryFeed)
+    );
+
+    /**
+     * Applies every migration the database doesn't have yet.
+     */
+    public static void migrate(Connection connection, String database) throws SQLException {
+        migrate(connection, database, "velocity_schema", MIGRATIONS);
+    }
+
+    /**
+     * Applies every migration of the {@code velocity_kits_changes} table the database doesn't have yet.
+     */
+    public static void migrateFeed(Connection connection) throws SQLException {
+        migrate(connection, "the change feed", "velocity_feed_schema", FEED_MIGRATIONS);
+    }
+
+    /**
+     * @param table The table recording the applied versions.
+     */
+    private static void migrate(Connection connection, String database, String table, List<Migration> migrations) throws SQLException {
+        execute(connection, SQLTableBuilder.of()
+                .name(table)
+                .column("version", "INT NOT NULL", PrimaryColumn.TRUE)
+                .column("description", "VARCHAR(255) NOT NULL", PrimaryColumn.FALSE)
+                .column("applied_at", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .build());
+
+        lock(connection, database);
+
+        try {
+            int current = version(connection, table);
+
+            for (Migration migration : migrations) {
+                if (migration.version() <= current) continue;
+
+                Utils.plugin().getLogger().info("Migrating " + database + " to schema " + migration.version() + ": " + migration.description());
+                migration.step().apply(connection);
+
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO " + table + " (version, description, applied_at) VALUES (?, ?, ?)")) {
+                    stmt.setInt(1, migration.version());
+                    stmt.setString(2, migration.description());
+                    stmt.setLong(3, System.currentTimeMillis());
+                    stmt.executeUpdate();
+                }
+            }
+        } finally {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                stmt.setString(1, LOCK);
+                stmt.executeQuery().close();
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void lock(Connection connection, String database) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another server to migrate " + database + ".");
+                }
+            }
+        }
+    }
+
+    private static int version(Connection connection, String table) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT MAX(version) FROM " + table);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /* 1: The tables as they were created before migrations existed. */
+    private static void initial(Connection connection) throws SQLException {
+        execute(connection, SQLTableBuilder.of()
+                .name("velocity_kits")
+                .column("player_uuid", "VARCHAR(36) NOT NULL", PrimaryColumn.TRUE)
+                .column("kit_number", "INT NOT NULL", PrimaryColumn.TRUE)
+                .column("contents", "TEXT(65535) NOT NULL", PrimaryColumn.FALSE)
+                .column("version", "BIGINT NOT NULL DEFAULT 1", PrimaryColumn.FALSE)
+                .build());
+
+        // Tables created before versioning don't have the column yet.
+        if (!exists(connection, "velocity_kits", "version")) {
+            execute(connection, SQLTableBuilder.of()
+                    .name("velocity_kits")
+                    .column("version", "BIGINT NOT NULL DEFAULT 1", PrimaryColumn.FALSE)
+                    .buildAlter());
+        }
+
+        execute(connection, SQLTableBuilder.of()
+                .name("velocity_players")
+                .column("player_uuid", "VARCHAR(36) NOT NULL", PrimaryColumn.TRUE)
+                .column("name", "VARCHAR(16) NOT NULL", PrimaryColumn.FALSE)
+                .index("name")
+                .build());
+    }
+
+    /*
+     * 2: BINARY(16) player UUIDs instead of 36 characters, which more than halves the primary key,
+     * and contents as the raw bytes instead of their base64 text. The old tables are kept as *_legacy.
+     * Servers on the old schema fail to write once the tables are swapped, so all of them must be updated first.
+     */
+    private static void binary(Connection connection) throws SQLException {
+        if (!binary(connection, "velocity_kits")) {
+            execute(connection, SQLTableBuilder.of()
+                    .name("velocity_kits_v2")
+                    .column("player_uuid", "BINARY(16) NOT NULL", PrimaryColumn.TRUE)
+                    .column("kit_number", "INT NOT NULL", PrimaryColumn.TRUE)
+                    .column("contents", "MEDIUMBLOB NOT NULL", PrimaryColumn.FALSE)
+                    .column("version", "BIGINT NOT NULL DEFAULT 1", PrimaryColumn.FALSE)
+                    .build());
+
+            copyKits(connection, "velocity_kits", "velocity_kits_v2");
+            execute(connection, "RENAME TABLE velocity_kits TO velocity_kits_legacy, velocity_kits_v2 TO velocity_kits");
+        }
+
+        // Catches kits that servers still on the old schema changed or deleted during the copy.
+        // Nothing else writes to the new table yet, every updated server waits for the lock before using it.
+        if (exists(connection, "velocity_kits_legacy", null)) {
+            copyKits(connection, "velocity_kits_legacy", "velocity_kits");
+            deleteMissingKits(connection, "velocity_kits_legacy", "velocity_kits");
+        }
+
+        if (!binary(connection, "velocity_players")) {
+            execute(connection, SQLTableBuilder.of()
+                    .name("velocity_players_v2")
+                    .column("player_uuid", "BINARY(16) NOT NULL", PrimaryColumn.TRUE)
+                    .column("name", "VARCHAR(16) NOT NULL", PrimaryColumn.FALSE)
+                    .index("name")
+                    .build());
+
+            copyPlayers(connection, "velocity_players", "velocity_players_v2");
+            execute(connection, "RENAME TABLE velocity_players TO velocity_players_legacy, velocity_players_v2 TO velocity_players");
+        }
+
+        Utils.plugin().getLogger().info("The old kit and player tables were kept as velocity_kits_legacy and velocity_players_legacy, " +
+                "drop them once every server is updated.");
+    }
+
+    /* 3: Revisions of every kit, see KitHistory. */
+    private static void revisions(Connection connection) throws SQLException {
+        execute(connection, SQLTableBuilder.of()
+                .name("velocity_kit_revisions")
+                .column("player_uuid", "BINARY(16) NOT NULL", PrimaryColumn.TRUE)
+                .column("kit_number", "INT NOT NULL", PrimaryColumn.TRUE)
+                .column("revision", "BIGINT NOT NULL", PrimaryColumn.TRUE)
+                .column("saved_at", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .column("full_snapshot", "BOOLEAN NOT NULL", PrimaryColumn.FALSE)
+                .column("changed_slots", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .column("removed_slots", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .column("contents", "MEDIUMBLOB NOT NULL", PrimaryColumn.FALSE)
+                .build());
+    }
+
+    /* 4: A single row holding until when a rebalance runs, see MySQLKitStorage#rebalance. */
+    private static void rebalance(Connection connection) throws SQLException {
+        execute(connection, SQLTableBuilder.of()
+                .name("velocity_rebalance")
+                .column("id", "INT NOT NULL", PrimaryColumn.TRUE)
+                .column("lease_until", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .build());
+
+        execute(connection, "INSERT IGNORE INTO velocity_rebalance (id, lease_until) VALUES (1, 0)");
+    }
+
+    /* Feed 1: The table as SQLChangeFeed created it before it was migrated. */
+    private static void feed(Connection connection) throws SQLException {
+        execute(connection, SQLTableBuilder.of()
+                .name("velocity_kits_changes")
+                .column("id", "BIGINT NOT NULL AUTO_INCREMENT", PrimaryColumn.TRUE)
+                .column("origin", "VARCHAR(36) NOT NULL", PrimaryColumn.FALSE)
+                .column("player_uuid", "VARCHAR(36) NOT NULL", PrimaryColumn.FALSE)
+                .column("kit_number", "INT NOT NULL", PrimaryColumn.FALSE)
+                .column("version", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .column("created_at", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                .index("created_at")
+                .build());
+    }
+
+    /*
+     * Feed 2: BINARY(16) origin and player UUIDs, like the kit tables. The feed only holds the last minutes
+     * of changes, so old rows are dropped instead of copied. Ids continue where the old table ended,
+     * so servers tailing it keep their cursor.
+     */
+    private static void binaryFeed(Connection connection) throws SQLException {
+        if (!binary(connection, "velocity_kits_changes")) {
+            execute(connection, SQLTableBuilder.of()
+                    .name("velocity_kits_changes_v2")
+                    .column("id", "BIGINT NOT NULL AUTO_INCREMENT", PrimaryColumn.TRUE)
+                    .column("origin", "BINARY(16) NOT NULL", PrimaryColumn.FALSE)
+                    .column("player_uuid", "BINARY(16) NOT NULL", PrimaryColumn.FALSE)
+                    .column("kit_number", "INT NOT NULL", PrimaryColumn.FALSE)
+                    .column("version", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                    .column("created_at", "BIGINT NOT NULL", PrimaryColumn.FALSE)
+                    .index("created_at")
+                    .build());
+
+            long next;
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) + 1 FROM velocity_kits_changes");
+                 ResultSet rs = stmt.executeQuery()) {
+                next = rs.next() ? rs.getLong(1) : 1;
+            }
+
+            execute(connection, "ALTER TABLE velocity_kits_changes_v2 AUTO_INCREMENT = " + next);
+            execute(connection, "RENAME TABLE velocity_kits_changes TO velocity_kits_changes_legacy, " +
+                    "velocity_kits_changes_v2 TO velocity_kits_changes");
+        }
+
+        execute(connection, "DROP TABLE IF EXISTS velocity_kits_changes_legacy");
+    }
+
+    /* Copies from a text table into a binary one, never replacing a newer version. */
+    private static void copyKits(Connection connection, String from, String to) throws SQLException {
+        String lastUUID = "";
+        int lastKit = -1;
+
+        while (true) {
+            List<KitRow> rows = new ArrayList<>(BATCH);
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, kit_number, contents, version FROM " + from +
+                            " WHERE (player_uuid, kit_number) > (?, ?) ORDER BY player_uuid, kit_number LIMIT ?")) {
+                stmt.setString(1, lastUUID);
+                stmt.setInt(2, lastKit);
+                stmt.setInt(3, BATCH);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastUUID = rs.getString("player_uuid");
+                        lastKit = rs.getInt("kit_number");
+                        rows.add(new KitRow(lastUUID, lastKit, rs.getString("contents"), rs.getLong("version")));
+                    }
+                }
+            }
+
+            if (rows.isEmpty()) return;
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO " + to + " (player_uuid, kit_number, contents, version) VALUES (?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE contents = IF(VALUES(version) > version, VALUES(contents), contents), " +
+                            "version = GREATEST(version, VALUES(version))")) {
+                for (KitRow row : rows) {
+                    if (!valid(row.playerUUID())) continue;
+
+                    stmt.setBytes(1, BinaryColumns.uuid(row.playerUUID()));
+                    stmt.setInt(2, row.kitNumber());
+                    stmt.setBytes(3, BinaryColumns.contents(row.contents()));
+                    stmt.setLong(4, row.version());
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+            }
+
+            if (rows.size() < BATCH) return;
+        }
+    }
+
+    /* Deletes kits from the binary table that the text table no longer has, they were deleted during the copy. */
+    private static void deleteMissingKits(Connection connection, String from, String to) throws SQLException {
+        byte[] lastUUID = new byte[0];
+        int lastKit = -1;
+
+        while (true) {
+            List<KitRow> rows = new ArrayList<>(BATCH);
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, kit_number FROM " + to +
+                            " WHERE (player_uuid, kit_number) > (?, ?) ORDER BY player_uuid, kit_number LIMIT ?")) {
+                stmt.setBytes(1, lastUUID);
+                stmt.setInt(2, lastKit);
+                stmt.setInt(3, BATCH);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastUUID = rs.getBytes("player_uuid");
+                        lastKit = rs.getInt("kit_number");
+                        rows.add(new KitRow(BinaryColumns.uuid(lastUUID), lastKit, null, 0));
+                    }
+                }
+            }
+
+            if (rows.isEmpty()) return;
+
+            Set<String> players = new HashSet<>();
+            rows.forEach(row -> players.add(row.playerUUID()));
+
+            Set<String> kept = new HashSet<>();
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT player_uuid, kit_number FROM " + from +
+                    " WHERE player_uuid IN (" + String.join(", ", Collections.nCopies(players.size(), "?")) + ")")) {
+                int index = 1;
+                for (String playerUUID : players) stmt.setString(index++, playerUUID);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        kept.add(rs.getString("player_uuid").toLowerCase(Locale.ROOT) + ":" + rs.getInt("kit_number"));
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM " + to + " WHERE player_uuid = ? AND kit_number = ?")) {
+                for (KitRow row : rows) {
+                    if (kept.contains(row.playerUUID() + ":" + row.kitNumber())) continue;
+
+                    stmt.setBytes(1, BinaryColumns.uuid(row.playerUUID()));
+                    stmt.setInt(2, row.kitNumber());
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+            }
+
+            if (rows.size() < BATCH) return;
+        }
+    }
+
+    private static void copyPlayers(Connection connection, String from, String to) throws SQLException {
+        String lastUUID = "";
+
+        while (true) {
+            List<PlayerRow> rows = new ArrayList<>(BATCH);
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT player_uuid, name FROM " + from + " WHERE player_uuid > ? ORDER BY player_uuid LIMIT ?")) {
+                stmt.setString(1, lastUUID);
+                stmt.setInt(2, BATCH);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastUUID = rs.getString("player_uuid");
+                        rows.add(new PlayerRow(lastUUID, rs.getString("name")));
+                    }
+                }
+            }
+
+            if (rows.isEmpty()) return;
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO " + to + " (player_uuid, name) VALUES (?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name)")) {
+                for (PlayerRow row : rows) {
+                    if (!valid(row.playerUUID())) continue;
+
+                    stmt.setBytes(1, BinaryColumns.uuid(row.playerUUID()));
+                    stmt.setString(2, row.name());
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+            }
+
+            if (rows.size() < BATCH) return;
+        }
+    }
+
+    private static boolean valid(String playerUUID) {
+        try {
+            BinaryColumns.uuid(playerUUID);
+            return true;
+        } catch (IllegalArgumentException e) {
+            Utils.plugin().getLogger().warning("Skipping row with the invalid player UUID " + playerUUID + ", it stays in the legacy table.");
+            return false;
+        }
+    }
+
+    /**
+     * @param column The column to look for, or null to only check the table.
+     */
+    private static boolean exists(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+
+        try (ResultSet rs = column == null
+                ? meta.getTables(connection.getCatalog(), null, table, null)
+                : meta.getColumns(connection.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private static boolean binary(Connection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(connection.getCatalog(), null, table, "player_uuid")) {
+            return rs.next() && rs.getInt("DATA_TYPE") == Types.BINARY;
+        }
+    }
+}
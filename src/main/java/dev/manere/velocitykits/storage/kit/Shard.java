@@ -0,0 +1,99 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * One database of the MySQL backend: the primary every write goes to, plus optional read replicas.
+ * Reads are spread over the healthy replicas and fail over to the primary when a replica fails.
+ */
+public class Shard {
+    private final String name;
+    private final ConnectionPool primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private static final class Replica {
+        private final ConnectionPool pool;
+        private volatile boolean healthy = true;
+
+        private Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+    }
+
+    public Shard(String name, ConnectionPool primary, List<ConnectionPool> replicas) {
+        this.name = name;
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ConnectionPool primary() {
+        return primary;
+    }
+
+    public boolean replicated() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Runs a read-only query on a healthy replica, or on the primary if there is none or the replica fails.
+     */
+    public <T> T read(ConnectionPool.Query<T> query) {
+        Replica replica = replica();
+        if (replica == null) return primary.with(query);
+
+        try {
+            return replica.pool.with(query);
+        } catch (RuntimeException e) {
+            replica.healthy = false;
+            Utils.plugin().getLogger().log(Level.WARNING, "Replica " + replica.pool.name() + " failed, reading from the primary until it recovers", e);
+
+            return primary.with(query);
+        }
+    }
+
+    private Replica replica() {
+        int size = replicas.size();
+
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), size));
+            if (replica.healthy) return replica;
+        }
+
+        return null;
+    }
+
+    /**
+     * Probes every replica, bringing failed ones back once they answer again.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+
+            try {
+                healthy = replica.pool.with(connection -> connection.isValid(2));
+            } catch (RuntimeException e) {
+                healthy = false;
+            }
+
+            if (healthy && !replica.healthy) {
+                Utils.plugin().getLogger().info("Replica " + replica.pool.name() + " recovered.");
+            }
+
+            replica.healthy = healthy;
+        }
+    }
+
+    public void close() {
+        primary.close();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+}
@@ -0,0 +1,58 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Consistent hash ring mapping player UUIDs to shards. Each shard is placed on the ring
+ * {@link #VIRTUAL_NODES} times by its name, so adding a shard only moves the players that land on its
+ * points, and the placement doesn't depend on the order shards are configured in.
+ */
+public class ShardRouter<T> {
+    private static final int VIRTUAL_NODES = 160;
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final List<T> shards;
+
+    /**
+     * @param shards The shards by their stable name.
+     */
+    public ShardRouter(Map<String, T> shards) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required.");
+
+        this.shards = List.copyOf(shards.values());
+
+        shards.forEach((name, shard) -> {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash(name + "#" + node), shard);
+            }
+        });
+    }
+
+    public T route(String playerUUID) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(playerUUID));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    public List<T> shards() {
+        return shards;
+    }
+
+    /* 64 bit FNV-1a with a murmur finalizer, stable across restarts and servers. */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,10 @@
+package dev.manere.velocitykits.storage.kit;
+
+/**
+ * Thrown by reads while the storage circuit breaker is open.
+ */
+public class StorageUnavailableException extends RuntimeException {
+    public StorageUnavailableException() {
+        super("The kit storage is unavailable.");
+    }
+}
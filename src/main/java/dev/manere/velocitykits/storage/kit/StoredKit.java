@@ -0,0 +1,11 @@
+package dev.manere.velocitykits.storage.kit;
+
+/**
+ * A serialized kit as stored by a backend, together with its version.
+ *
+ * @param data    The serialized contents.
+ * @param version The version, bumped by every write.
+ */
+public record StoredKit(String data, long version) {
+
+}
@@ -0,0 +1,28 @@
+package dev.manere.velocitykits.storage.kit;
+
+/**
+ * The outcome of a conditional kit write.
+ *
+ * @param saved   Whether the write went through. False means another write got there first.
+ * @param version The version now stored: the new version if saved, the conflicting one otherwise.
+ */
+public record WriteResult(boolean saved, long version) {
+    public static WriteResult saved(long version) {
+        return new WriteResult(true, version);
+    }
+
+    public static WriteResult conflict(long version) {
+        return new WriteResult(false, version);
+    }
+
+    /**
+     * The backend is unavailable, the write was spooled and gets its version once it is replayed.
+     */
+    public static WriteResult queued() {
+        return new WriteResult(true, KitCache.UNKNOWN_VERSION);
+    }
+
+    public boolean spooled() {
+        return saved && version == KitCache.UNKNOWN_VERSION;
+    }
+}
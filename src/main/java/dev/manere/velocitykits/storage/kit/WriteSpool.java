@@ -0,0 +1,188 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only file of storage writes that couldn't reach the backend, replayed in order once it is back.
+ * <p>
+ * Each record is length-prefixed and forced to disk before {@link #append(Entry)} returns.
+ * A record cut off by a crash is ignored on startup.
+ */
+public class WriteSpool {
+    private final Path path;
+    private final FileChannel channel;
+    private final AtomicInteger depth = new AtomicInteger();
+
+    /* Bytes of complete records, only grows by append and is reset by clear. */
+    private volatile long committed;
+
+    public enum Type {
+        WRITE,
+        DELETE,
+        NAME
+    }
+
+    /**
+     * @param data The serialized kit for writes, the name for name updates, null for deletes.
+     */
+    public record Entry(Type type, String playerUUID, int kitNumber, String data) {
+
+    }
+
+    /**
+     * @param entries The entries read.
+     * @param end     The position after the last entry read.
+     */
+    public record Batch(List<Entry> entries, long end) {
+
+    }
+
+    public WriteSpool(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Recovers what a previous run left behind, dropping a torn record at the end.
+        long position = 0;
+        while (true) {
+            Batch batch = read(position, Long.MAX_VALUE, Integer.MAX_VALUE);
+            if (batch.entries().isEmpty()) break;
+
+            depth.addAndGet(batch.entries().size());
+            position = batch.end();
+        }
+
+        channel.truncate(position);
+        committed = position;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return The amount of entries waiting to be replayed.
+     */
+    public int depth() {
+        return depth.get();
+    }
+
+    public long committed() {
+        return committed;
+    }
+
+    public synchronized void append(Entry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeByte(entry.type().ordinal());
+            out.writeUTF(entry.playerUUID());
+            out.writeInt(entry.kitNumber());
+            out.writeBoolean(entry.data() != null);
+
+            if (entry.data() != null) {
+                byte[] data = entry.data().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        buffer.putInt(0, buffer.capacity() - Integer.BYTES);
+
+        try {
+            long position = committed;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+
+            channel.force(false);
+            committed = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        depth.incrementAndGet();
+    }
+
+    /**
+     * Reads complete entries starting at {@code position}.
+     */
+    public Batch read(long position, long limit, int maxEntries) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long end = Math.min(limit, channel.size());
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+
+        while (entries.size() < maxEntries && position + Integer.BYTES <= end) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(0);
+
+            if (length <= 0 || position + Integer.BYTES + length > end) break;
+
+            ByteBuffer body = ByteBuffer.allocate(length);
+            while (body.hasRemaining()) {
+                if (channel.read(body, position + Integer.BYTES + body.position()) < 0) break;
+            }
+
+            if (body.hasRemaining()) break;
+
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()))) {
+                Type type = Type.values()[in.readByte()];
+                String playerUUID = in.readUTF();
+                int kitNumber = in.readInt();
+                String data = null;
+
+                if (in.readBoolean()) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    data = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                entries.add(new Entry(type, playerUUID, kitNumber, data));
+            } catch (EOFException | ArrayIndexOutOfBoundsException e) {
+                break;
+            }
+
+            position += Integer.BYTES + length;
+        }
+
+        return new Batch(entries, position);
+    }
+
+    /**
+     * Marks entries as replayed.
+     */
+    public void replayed(int amount) {
+        depth.addAndGet(-amount);
+    }
+
+    /**
+     * Empties the spool if everything up to {@code position} was replayed and nothing was appended since.
+     *
+     * @return Whether the spool is empty now.
+     */
+    public synchronized boolean clear(long position) throws IOException {
+        if (position != committed) return false;
+
+        channel.truncate(0);
+        channel.force(true);
+        committed = 0;
+        depth.set(0);
+        return true;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
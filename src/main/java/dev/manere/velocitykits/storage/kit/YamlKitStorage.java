@@ -0,0 +1,398 @@
+package dev.manere.velocitykits.storage.kit;
+
+import dev.manere.utils.library.Utils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * YAML backend run as a single-writer actor.
+ * <p>
+ * One dedicated thread owns the {@link FileConfiguration} and works through a mailbox of write and delete commands,
+ * which also makes the version check of conditional writes atomic.
+ * Kit history is rarely read, so it isn't published and is read by the actor instead. It is kept in a file of its own
+ * next to the kits, {@code kits-history.yml} for {@code kits.yml}, so saving kits never rewrites the history as well.
+ * After applying a command it publishes the player's kits as an immutable map, which is what every read is served from,
+ * so kit reads never touch the configuration. Changes are flushed to disk at most once per {@code storage.yaml-flush-interval} milliseconds.
+ */
+public class YamlKitStorage implements KitStorage {
+    private final File file;
+    private final File historyFile;
+    private final BlockingQueue<Command> mailbox = new LinkedBlockingQueue<>();
+
+    /* Only replaced by the actor thread, values are immutable. */
+    private final Map<String, Map<Integer, StoredKit>> kits = new ConcurrentHashMap<>();
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    private FileConfiguration config;
+    private FileConfiguration history;
+    private Thread thread;
+    private long flushInterval;
+    private volatile boolean running;
+
+    public YamlKitStorage() {
+        this(new File(Utils.plugin().getDataFolder(), "kits.yml"));
+    }
+
+    /**
+     * @param file The file to keep kits in, used on its own by benchmarks.
+     */
+    public YamlKitStorage(File file) {
+        this(file, 0);
+    }
+
+    /**
+     * @param flushInterval Overrides {@code storage.yaml-flush-interval}, so it can run without the plugin's config.
+     */
+    public YamlKitStorage(File file, long flushInterval) {
+        this.file = file;
+        this.historyFile = new File(file.getParentFile(), file.getName().replaceFirst("(\\.yml)?$", "-history.yml"));
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * The files the actor owns, each flushed on its own once changed.
+     */
+    private enum Target {
+        KITS,
+        HISTORY
+    }
+
+    private record Command(Target target, Function<FileConfiguration, Object> action, CompletableFuture<Object> applied) {
+
+    }
+
+    @Override
+    public void setup() {
+        if (!file.exists()) {
+            try {
+                file.createNewFile();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        config = YamlConfiguration.loadConfiguration(file);
+        history = YamlConfiguration.loadConfiguration(historyFile);
+
+        // History used to be kept in the kits file, it moves over once.
+        ConfigurationSection legacyRevisions = config.getConfigurationSection("revisions");
+        if (legacyRevisions != null) {
+            for (String key : legacyRevisions.getKeys(true)) {
+                if (!legacyRevisions.isConfigurationSection(key)) history.set("revisions." + key, legacyRevisions.get(key));
+            }
+
+            config.set("revisions", null);
+
+            // The history is on disk before it is dropped from the kits file.
+            flush(historyFile, history);
+            flush(file, config);
+        }
+
+        if (flushInterval <= 0) {
+            flushInterval = Utils.plugin().getConfig().getLong("storage.yaml-flush-interval", 1000);
+        }
+
+        flushInterval = Math.max(50, flushInterval);
+
+        ConfigurationSection kitSection = config.getConfigurationSection("kits");
+        if (kitSection != null) {
+            for (String playerUUID : kitSection.getKeys(false)) {
+                ConfigurationSection playerKits = kitSection.getConfigurationSection(playerUUID);
+                if (playerKits == null) continue;
+
+                Map<Integer, StoredKit> loaded = new HashMap<>();
+                for (String kitNumber : playerKits.getKeys(false)) {
+                    String data = playerKits.getString(kitNumber);
+                    if (data == null) continue;
+
+                    try {
+                        long version = config.getLong("versions." + playerUUID + "." + kitNumber, 1);
+                        loaded.put(Integer.parseInt(kitNumber), new StoredKit(data, version));
+                    } catch (NumberFormatException ignored) {
+                        /* Not a kit entry */
+                    }
+                }
+
+                if (!loaded.isEmpty()) {
+                    kits.put(playerUUID, Map.copyOf(loaded));
+                }
+            }
+        }
+
+        ConfigurationSection players = config.getConfigurationSection("players");
+        if (players != null) {
+            for (String playerUUID : players.getKeys(false)) {
+                String name = players.getString(playerUUID);
+                if (name != null) names.put(playerUUID, name);
+            }
+        }
+
+        running = true;
+        thread = new Thread(this::run, "VelocityKits YAML Storage");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public StoredKit read(String playerUUID, int kitNumber) {
+        return kits.getOrDefault(playerUUID, Map.of()).get(kitNumber);
+    }
+
+    @Override
+    public WriteResult write(String playerUUID, int kitNumber, String data, long expectedVersion) {
+        return send(config -> {
+            // Runs on the actor thread, so checking and writing the version can't interleave with another write.
+            StoredKit current = read(playerUUID, kitNumber);
+            long currentVersion = current == null ? 0 : current.version();
+
+            if (currentVersion != expectedVersion) {
+                return WriteResult.conflict(currentVersion);
+            }
+
+            long version = currentVersion == 0 ? System.currentTimeMillis() : currentVersion + 1;
+
+            config.set(path(playerUUID, kitNumber), data);
+            config.set("versions." + playerUUID + "." + kitNumber, version);
+
+            Map<Integer, StoredKit> updated = new HashMap<>(kits.getOrDefault(playerUUID, Map.of()));
+            updated.put(kitNumber, new StoredKit(data, version));
+            kits.put(playerUUID, Map.copyOf(updated));
+
+            return WriteResult.saved(version);
+        });
+    }
+
+    @Override
+    public void delete(String playerUUID, int kitNumber) {
+        send(config -> {
+            config.set(path(playerUUID, kitNumber), null);
+            config.set("versions." + playerUUID + "." + kitNumber, null);
+
+            Map<Integer, StoredKit> updated = new HashMap<>(kits.getOrDefault(playerUUID, Map.of()));
+            updated.remove(kitNumber);
+
+            if (updated.isEmpty()) {
+                kits.remove(playerUUID);
+            } else {
+                kits.put(playerUUID, Map.copyOf(updated));
+            }
+
+            return null;
+        });
+    }
+
+    @Override
+    public long version(String playerUUID, int kitNumber) {
+        StoredKit stored = read(playerUUID, kitNumber);
+        return stored == null ? 0 : stored.version();
+    }
+
+    @Override
+    public Map<Integer, Long> versions(String playerUUID) {
+        Map<Integer, Long> versions = new TreeMap<>();
+        kits.getOrDefault(playerUUID, Map.of()).forEach((kitNumber, stored) -> versions.put(kitNumber, stored.version()));
+        return versions;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        kits.forEach((playerUUID, playerKits) -> playerKits.forEach((kitNumber, stored) -> visitor.accept(playerUUID, kitNumber, stored.data())));
+    }
+
+    @Override
+    public void forEachName(NameVisitor visitor) {
+        names.forEach(visitor::accept);
+    }
+
+    @Override
+    public Optional<String> uuid(String name) {
+        return names.entrySet().stream()
+                .filter(entry -> name.equalsIgnoreCase(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    @Override
+    public void saveName(String playerUUID, String name) {
+        send(config -> {
+            config.set("players." + playerUUID, name);
+            names.put(playerUUID, name);
+            return null;
+        });
+    }
+
+    @Override
+    public void writeRevision(String playerUUID, int kitNumber, Revision revision) {
+        send(Target.HISTORY, config -> {
+            String path = revisionPath(playerUUID, kitNumber) + "." + revision.id();
+
+            config.set(path + ".saved-at", revision.savedAt());
+            config.set(path + ".full", revision.full());
+            config.set(path + ".changed-slots", revision.changedSlots());
+            config.set(path + ".removed-slots", revision.removedSlots());
+            config.set(path + ".data", revision.data());
+            return null;
+        });
+    }
+
+    @Override
+    public List<Revision> revisions(String playerUUID, int kitNumber) {
+        return send(Target.HISTORY, config -> {
+            ConfigurationSection section = config.getConfigurationSection(revisionPath(playerUUID, kitNumber));
+            if (section == null) return List.<Revision>of();
+
+            List<Revision> revisions = new ArrayList<>();
+            for (String id : section.getKeys(false)) {
+                ConfigurationSection revision = section.getConfigurationSection(id);
+                if (revision == null) continue;
+
+                try {
+                    revisions.add(new Revision(Long.parseLong(id),
+                            revision.getLong("saved-at"),
+                            revision.getBoolean("full"),
+                            revision.getLong("changed-slots"),
+                            revision.getLong("removed-slots"),
+                            revision.getString("data", "")));
+                } catch (NumberFormatException ignored) {
+                    /* Not a revision entry */
+                }
+            }
+
+            revisions.sort(Comparator.comparingLong(Revision::id));
+            return revisions;
+        });
+    }
+
+    @Override
+    public void deleteRevisions(String playerUUID, int kitNumber, long id) {
+        send(Target.HISTORY, config -> {
+            String path = revisionPath(playerUUID, kitNumber);
+            ConfigurationSection section = config.getConfigurationSection(path);
+            if (section == null) return null;
+
+            for (String revision : section.getKeys(false)) {
+                try {
+                    if (Long.parseLong(revision) < id) config.set(path + "." + revision, null);
+                } catch (NumberFormatException ignored) {
+                    /* Not a revision entry */
+                }
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Stops the actor after it has applied every queued command and flushed them to disk.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (thread == null) return;
+
+        // Wakes the actor up without interrupting it, an interrupt would abort the final flush.
+        mailbox.add(new Command(null, config -> null, new CompletableFuture<>()));
+
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues the command and waits until the actor has applied it, not until it is on disk.
+     * That way a read on the same lane right after a write always sees it.
+     */
+    private <T> T send(Function<FileConfiguration, T> action) {
+        return send(Target.KITS, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T send(Target target, Function<FileConfiguration, T> action) {
+        if (!running) throw new IllegalStateException("The YAML storage is closed.");
+
+        Command command = new Command(target, action::apply, new CompletableFuture<>());
+        mailbox.add(command);
+        return (T) command.applied().join();
+    }
+
+    private void run() {
+        Set<Target> dirty = EnumSet.noneOf(Target.class);
+        long nextFlush = System.currentTimeMillis() + flushInterval;
+
+        while (running || !mailbox.isEmpty()) {
+            try {
+                Command command = running
+                        ? mailbox.poll(Math.max(1, nextFlush - System.currentTimeMillis()), TimeUnit.MILLISECONDS)
+                        : mailbox.poll();
+
+                while (command != null) {
+                    apply(command);
+                    if (command.target() != null) dirty.add(command.target());
+                    command = mailbox.poll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (!dirty.isEmpty() && (!running || System.currentTimeMillis() >= nextFlush)) {
+                flush(dirty);
+            }
+
+            if (System.currentTimeMillis() >= nextFlush) {
+                nextFlush = System.currentTimeMillis() + flushInterval;
+            }
+        }
+
+        flush(dirty);
+    }
+
+    private void apply(Command command) {
+        try {
+            command.applied().complete(command.action().apply(command.target() == Target.HISTORY ? history : config));
+        } catch (Throwable throwable) {
+            command.applied().completeExceptionally(throwable);
+        }
+    }
+
+    /* Only the changed files are written, so saving a kit doesn't rewrite the history. */
+    private void flush(Set<Target> dirty) {
+        if (dirty.remove(Target.KITS)) flush(file, config);
+        if (dirty.remove(Target.HISTORY)) flush(historyFile, history);
+    }
+
+    /* Writes to a temporary file first, so a crash mid-write never leaves a truncated file behind. */
+    private static void flush(File file, FileConfiguration config) {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+
+        try {
+            Files.writeString(temp, config.saveToString(), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Utils.plugin().getLogger().log(Level.SEVERE, "Failed to save " + file.getName(), e);
+        }
+    }
+
+    private static String path(String playerUUID, int kitNumber) {
+        return "kits." + playerUUID + "." + kitNumber;
+    }
+
+    private static String revisionPath(String playerUUID, int kitNumber) {
+        return "revisions." + playerUUID + "." + kitNumber;
+    }
+}
@@ -0,0 +1,128 @@
+package dev.manere.velocitykits.storage.player;
+
+import dev.manere.utils.library.Utils;
+import dev.manere.velocitykits.scheduler.PluginExecutors;
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import dev.manere.velocitykits.storage.kit.Kit;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory name to UUID index, so admin commands never have to go through
+ * {@link org.bukkit.Bukkit#getOfflinePlayer(String)} and its blocking profile lookups.
+ * <p>
+ * It is filled from the players table of the storage backend on enable and kept up to date from join events.
+ * Players the table doesn't know yet, like everyone who hasn't joined since it was introduced, are backfilled
+ * from the server's own player data once on enable, and looked up in the server's name cache as a last resort.
+ */
+public class PlayerDirectory implements Listener {
+    private static final ConcurrentSkipListMap<String, UUID> byName = new ConcurrentSkipListMap<>();
+    private static final Map<UUID, String> byUUID = new ConcurrentHashMap<>();
+
+    public static void of() {
+        StorageLanes.background().execute(() -> {
+            Kit.forEachName((uuid, name) -> put(UUID.fromString(uuid), name));
+            backfill();
+        });
+    }
+
+    /* Stores the players this server has data for but the players table is missing. */
+    private static void backfill() {
+        int added = 0;
+
+        for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+            String name = player.getName();
+            if (name == null || byUUID.containsKey(player.getUniqueId())) continue;
+
+            put(player.getUniqueId(), name);
+            Kit.saveName(player.getUniqueId().toString(), name);
+            added++;
+        }
+
+        if (added > 0) {
+            Utils.plugin().getLogger().info("Added " + added + " players that joined before the player directory existed.");
+        }
+    }
+
+    /**
+     * Resolves a player name to a UUID. Known names complete immediately, unknown names
+     * fall back to a single indexed query against the storage backend off the main thread,
+     * and then to the server's name cache, which never makes a profile lookup.
+     */
+    @NotNull
+    public static CompletableFuture<Optional<UUID>> resolve(String name) {
+        UUID cached = byName.get(key(name));
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<UUID> stored = Kit.uuid(name).map(UUID::fromString);
+
+            if (stored.isEmpty()) {
+                OfflinePlayer player = Bukkit.getOfflinePlayerIfCached(name);
+                if (player == null) return stored;
+
+                stored = Optional.of(player.getUniqueId());
+                Kit.saveName(player.getUniqueId().toString(), player.getName() == null ? name : player.getName());
+            }
+
+            stored.ifPresent(uuid -> put(uuid, name));
+            return stored;
+        }, PluginExecutors.async());
+    }
+
+    /**
+     * @return Up to {@code limit} known player names starting with the given prefix, for tab completion.
+     */
+    @NotNull
+    public static List<String> names(String prefix, int limit) {
+        String from = key(prefix);
+        List<String> list = new ArrayList<>();
+
+        for (Map.Entry<String, UUID> entry : byName.tailMap(from).entrySet()) {
+            if (!entry.getKey().startsWith(from) || list.size() >= limit) break;
+            list.add(byUUID.getOrDefault(entry.getValue(), entry.getKey()));
+        }
+
+        return list;
+    }
+
+    private static void put(UUID uuid, String name) {
+        String previous = byUUID.put(uuid, name);
+
+        if (previous != null && !previous.equalsIgnoreCase(name)) {
+            byName.remove(key(previous), uuid);
+        }
+
+        byName.put(key(name), uuid);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        String known = byUUID.get(player.getUniqueId());
+
+        put(player.getUniqueId(), player.getName());
+
+        if (!player.getName().equals(known)) {
+            StorageLanes.lane(player.getUniqueId().toString()).execute(() -> Kit.saveName(player.getUniqueId().toString(), player.getName()));
+        }
+    }
+}
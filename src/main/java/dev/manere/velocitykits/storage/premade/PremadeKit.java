@@ -3,21 +3,57 @@ package dev.manere.velocitykits.storage.premade;
 import dev.manere.utils.item.ItemBuilder;
 import dev.manere.utils.library.Utils;
 import dev.manere.utils.serializers.Serializers;
+import dev.manere.velocitykits.storage.IOGuard;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
+import java.util.*;
+
+/**
+ * Premade kits are decoded once into immutable {@link Image}s and served from memory.
+ * They are only rebuilt when a kit is exported or the file is explicitly reloaded.
+ * <p>
+ * The legacy top level {@code contents} list is the {@link #DEFAULT} kit, named kits live under {@code kits.<name>.contents}.
+ */
 public class PremadeKit {
+    public static final String DEFAULT = "default";
+
     private static FileConfiguration config;
+    private static volatile Map<String, Image> images = Map.of();
+    private static volatile List<String> names = List.of();
+
     public PremadeKit() {
         PremadeKit.of();
     }
 
+    /**
+     * A decoded premade kit. The backing array is never handed out, both accessors return a copy.
+     */
+    public record Image(String name, ItemStack[] items) {
+        /**
+         * @return A copy of the items, same as {@link #contents()}.
+         */
+        @Override
+        public ItemStack[] items() {
+            return contents();
+        }
+
+        public ItemStack[] contents() {
+            ItemStack[] copy = new ItemStack[items.length];
+
+            for (int i = 0; i < items.length; i++) {
+                copy[i] = items[i] == null ? null : items[i].clone();
+            }
+
+            return copy;
+        }
+    }
+
     public static void of() {
         File file = new File(Utils.plugin().getDataFolder(), "premade.yml");
 
@@ -33,73 +69,144 @@ public class PremadeKit {
             }
         }
 
-        config = YamlConfiguration.loadConfiguration(file);
+        config = IOGuard.call("premade.yml read", () -> YamlConfiguration.loadConfiguration(file));
+        rebuild();
     }
 
-    public static List<ItemBuilder> contentsItemBuilders() {
-        reload();
+    /**
+     * @return The premade kit with the given name, or null if there is none.
+     */
+    @Nullable
+    public static Image image(String name) {
+        return images.get(name.toLowerCase(Locale.ROOT));
+    }
 
-        List<ItemBuilder> list = new ArrayList<>();
+    /**
+     * @return The names of every premade kit, sorted.
+     */
+    public static List<String> names() {
+        return names;
+    }
 
-        for (String data : config.getStringList("contents")) {
-            ItemStack stack = Serializers.base64().deserialize(data);
-            ItemBuilder itemBuilder = ItemBuilder.item(stack);
+    public static List<ItemBuilder> contentsItemBuilders() {
+        List<ItemBuilder> list = new ArrayList<>();
 
-            list.add(itemBuilder);
+        for (ItemStack stack : contentsItemStacks()) {
+            list.add(ItemBuilder.item(stack));
         }
 
         return list;
     }
 
     public static List<ItemStack> contentsItemStacks() {
-        reload();
-
-        List<ItemStack> list = new ArrayList<>();
+        Image image = image(DEFAULT);
 
-        for (String data : config.getStringList("contents")) {
-            ItemStack stack = Serializers.base64().deserialize(data);
-            list.add(stack);
+        if (image == null) {
+            return new ArrayList<>();
         }
 
-        return list;
+        return new ArrayList<>(Arrays.asList(image.contents()));
     }
 
     public static void contentsItemBuilders(List<ItemBuilder> contents) {
-        reload();
-
-        List<String> toAdd = new ArrayList<>();
+        List<ItemStack> stacks = new ArrayList<>();
         for (ItemBuilder builder : contents) {
-            String serialize = Serializers.base64().serializeItemStack(builder.build());
-            toAdd.add(serialize);
+            stacks.add(builder.build());
         }
 
-        config.set("contents", toAdd);
-
-        save();
-        reload();
+        export(DEFAULT, stacks);
     }
 
     public static void contentsItemStacks(List<ItemStack> contents) {
-        reload();
+        export(DEFAULT, contents);
+    }
+
+    /**
+     * Writes the premade kit to disk and replaces its cached image.
+     *
+     * @param name     The name of the premade kit.
+     * @param contents The inventory contents, null entries are kept as empty slots.
+     */
+    public static synchronized void export(String name, List<ItemStack> contents) {
+        String key = name.toLowerCase(Locale.ROOT);
 
-        List<ItemBuilder> builders = new ArrayList<>();
+        List<String> serialized = new ArrayList<>();
         for (ItemStack stack : contents) {
-            ItemBuilder itemBuilder = ItemBuilder.item(stack);
-            builders.add(itemBuilder);
+            serialized.add(Serializers.base64().serializeItemStack(ItemBuilder.item(stack).build()));
         }
 
-        contentsItemBuilders(builders);
+        config.set(path(key), serialized);
+        save();
+
+        Map<String, Image> updated = new HashMap<>(images);
+        updated.put(key, image(key, contents));
+        publish(updated);
     }
 
     public static void save() {
-        try {
-            config.save(new File(Utils.plugin().getDataFolder(), "premade.yml"));
-        } catch (IOException e) {
-            throw new RuntimeException();
-        }
+        IOGuard.run("premade.yml write", () -> {
+            try {
+                config.save(new File(Utils.plugin().getDataFolder(), "premade.yml"));
+            } catch (IOException e) {
+                throw new RuntimeException();
+            }
+        });
     }
 
     public static void reload() {
-        config = YamlConfiguration.loadConfiguration(new File(Utils.plugin().getDataFolder(), "premade.yml"));
+        config = IOGuard.call("premade.yml read", () ->
+                YamlConfiguration.loadConfiguration(new File(Utils.plugin().getDataFolder(), "premade.yml")));
+        rebuild();
+    }
+
+    private static synchronized void rebuild() {
+        Map<String, Image> decoded = new HashMap<>();
+
+        if (config.contains("contents")) {
+            decoded.put(DEFAULT, decode(DEFAULT, config.getStringList("contents")));
+        }
+
+        ConfigurationSection kits = config.getConfigurationSection("kits");
+        if (kits != null) {
+            for (String name : kits.getKeys(false)) {
+                String key = name.toLowerCase(Locale.ROOT);
+                decoded.put(key, decode(key, kits.getStringList(name + ".contents")));
+            }
+        }
+
+        publish(decoded);
+    }
+
+    private static void publish(Map<String, Image> decoded) {
+        List<String> sorted = new ArrayList<>(decoded.keySet());
+        Collections.sort(sorted);
+
+        images = Map.copyOf(decoded);
+        names = List.copyOf(sorted);
+    }
+
+    private static Image decode(String name, List<String> data) {
+        List<ItemStack> stacks = new ArrayList<>();
+
+        for (String entry : data) {
+            stacks.add(Serializers.base64().deserialize(entry));
+        }
+
+        return image(name, stacks);
+    }
+
+    private static Image image(String name, List<ItemStack> stacks) {
+        ItemStack[] items = new ItemStack[stacks.size()];
+
+        for (int i = 0; i < items.length; i++) {
+            ItemStack stack = stacks.get(i);
+            items[i] = stack == null ? null : stack.clone();
+        }
+
+        return new Image(name, items);
+    }
+
+    private static String path(String name) {
+        return name.equals(DEFAULT) ? "contents" : "kits." + name + ".contents";
     }
 }
@@ -3,6 +3,10 @@ package dev.manere.velocitykits.storage.room;
 import dev.manere.utils.item.ItemBuilder;
 import dev.manere.utils.library.Utils;
 import dev.manere.utils.serializers.Serializers;
+import dev.manere.velocitykits.metrics.KitEvents;
+import dev.manere.velocitykits.metrics.Metrics;
+import dev.manere.velocitykits.storage.IOGuard;
+import dev.manere.velocitykits.storage.search.ItemIndex;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -34,7 +38,11 @@ public class KitRoom {
             }
         }
 
-        config = YamlConfiguration.loadConfiguration(file);
+        config = IOGuard.call("kitroom.yml read", () -> YamlConfiguration.loadConfiguration(file));
+
+        for (KitRoomCategory category : KitRoomCategory.values()) {
+            index(category);
+        }
     }
 
     public static ConfigurationSection section(KitRoomCategory category) {
@@ -47,6 +55,9 @@ public class KitRoom {
     }
 
     public static List<ItemStack> itemStacks(KitRoomCategory category) {
+        KitEvents.KitRoomRead event = new KitEvents.KitRoomRead();
+        event.begin();
+        long start = Metrics.start();
         reload();
 
         List<ItemStack> list = new ArrayList<>();
@@ -61,10 +72,15 @@ public class KitRoom {
             list.add(stack);
         }
 
+        Metrics.record(Metrics.Timer.KIT_ROOM_READ, start);
+        read(event, category, list.size());
         return list;
     }
 
     public static List<ItemBuilder> itemBuilders(KitRoomCategory category) {
+        KitEvents.KitRoomRead event = new KitEvents.KitRoomRead();
+        event.begin();
+        long start = Metrics.start();
         reload();
 
         List<ItemBuilder> list = new ArrayList<>();
@@ -80,6 +96,8 @@ public class KitRoom {
             list.add(itemBuilder);
         }
 
+        Metrics.record(Metrics.Timer.KIT_ROOM_READ, start);
+        read(event, category, list.size());
         return list;
     }
 
@@ -105,6 +123,7 @@ public class KitRoom {
         save();
 
         reload();
+        index(category);
 
         return true;
     }
@@ -132,6 +151,7 @@ public class KitRoom {
 
         save();
         reload();
+        index(category);
     }
 
     public static void clear() {
@@ -140,15 +160,30 @@ public class KitRoom {
         }
     }
 
+    private static void read(KitEvents.KitRoomRead event, KitRoomCategory category, int items) {
+        if (!event.shouldCommit()) return;
+
+        event.category = category.path();
+        event.items = items;
+        event.commit();
+    }
+
+    private static void index(KitRoomCategory category) {
+        ItemIndex.indexRoom(category, itemStacks(category));
+    }
+
     public static void save() {
-        try {
-            config.save(new File(Utils.plugin().getDataFolder(), "kitroom.yml"));
-        } catch (IOException e) {
-            throw new RuntimeException();
-        }
+        IOGuard.run("kitroom.yml write", () -> {
+            try {
+                config.save(new File(Utils.plugin().getDataFolder(), "kitroom.yml"));
+            } catch (IOException e) {
+                throw new RuntimeException();
+            }
+        });
     }
 
     public static void reload() {
-        config = YamlConfiguration.loadConfiguration(new File(Utils.plugin().getDataFolder(), "kitroom.yml"));
+        config = IOGuard.call("kitroom.yml read", () ->
+                YamlConfiguration.loadConfiguration(new File(Utils.plugin().getDataFolder(), "kitroom.yml")));
     }
 }
@@ -0,0 +1,247 @@
+package dev.manere.velocitykits.storage.search;
+
+import dev.manere.velocitykits.storage.room.KitRoomCategory;
+import org.bukkit.Material;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from item terms (material, enchantment and potion type) to the
+ * kit room slots and saved kits that contain them.
+ * <p>
+ * The index is updated incrementally whenever the kit room or a kit is written,
+ * so lookups never have to touch or decode the stored data.
+ */
+public class ItemIndex {
+    private static final ConcurrentSkipListMap<String, Set<RoomSlot>> roomIndex = new ConcurrentSkipListMap<>();
+    private static final ConcurrentSkipListMap<String, Set<KitKey>> kitIndex = new ConcurrentSkipListMap<>();
+
+    private static final Map<KitRoomCategory, Map<Integer, ItemStack>> roomItems = new ConcurrentHashMap<>();
+    private static final Map<KitRoomCategory, Set<String>> roomTerms = new ConcurrentHashMap<>();
+    private static final Map<KitKey, Set<String>> kitTerms = new ConcurrentHashMap<>();
+
+    /**
+     * A single slot of a kit room category.
+     */
+    public record RoomSlot(KitRoomCategory category, int slot) {
+
+    }
+
+    /**
+     * A saved kit of a player.
+     */
+    public record KitKey(String playerUUID, int kitNumber) {
+
+    }
+
+    /**
+     * Replaces everything indexed for the given kit room category.
+     *
+     * @param category The category that was changed.
+     * @param contents The full, ordered contents of the category.
+     */
+    public static synchronized void indexRoom(KitRoomCategory category, List<ItemStack> contents) {
+        Set<String> previous = roomTerms.remove(category);
+        if (previous != null) {
+            for (String term : previous) {
+                removeWhere(roomIndex, term, slot -> slot.category() == category);
+            }
+        }
+
+        Map<Integer, ItemStack> items = new HashMap<>();
+        Set<String> terms = new HashSet<>();
+
+        for (int slot = 0; slot < contents.size(); slot++) {
+            ItemStack item = contents.get(slot);
+            if (item == null || item.getType().isAir()) continue;
+
+            items.put(slot, item.clone());
+
+            RoomSlot roomSlot = new RoomSlot(category, slot);
+            for (String term : terms(item)) {
+                roomIndex.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(roomSlot);
+                terms.add(term);
+            }
+        }
+
+        roomItems.put(category, Collections.unmodifiableMap(items));
+        roomTerms.put(category, terms);
+    }
+
+    /**
+     * Replaces everything indexed for the given kit.
+     *
+     * @param playerUUID The owner of the kit.
+     * @param kitNumber  The kit number.
+     * @param contents   The slot to item contents of the kit.
+     */
+    public static synchronized void indexKit(String playerUUID, int kitNumber, Map<Integer, ItemStack> contents) {
+        KitKey key = new KitKey(playerUUID, kitNumber);
+        removeKit(key);
+
+        Set<String> terms = new HashSet<>();
+        for (ItemStack item : contents.values()) {
+            terms.addAll(terms(item));
+        }
+
+        if (terms.isEmpty()) return;
+
+        for (String term : terms) {
+            kitIndex.computeIfAbsent(term, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+
+        kitTerms.put(key, terms);
+    }
+
+    public static synchronized void removeKit(String playerUUID, int kitNumber) {
+        removeKit(new KitKey(playerUUID, kitNumber));
+    }
+
+    private static void removeKit(KitKey key) {
+        Set<String> previous = kitTerms.remove(key);
+        if (previous == null) return;
+
+        for (String term : previous) {
+            removeWhere(kitIndex, term, key::equals);
+        }
+    }
+
+    /**
+     * @return The kit room slots containing the term, ordered by category and slot.
+     */
+    @NotNull
+    public static List<RoomSlot> roomSlots(String term) {
+        Set<RoomSlot> slots = roomIndex.get(normalize(term));
+        if (slots == null) return List.of();
+
+        List<RoomSlot> list = new ArrayList<>(slots);
+        list.sort(Comparator.comparing(RoomSlot::category).thenComparingInt(RoomSlot::slot));
+        return list;
+    }
+
+    /**
+     * @return The item stored in the given kit room slot, or null if it is empty.
+     */
+    public static ItemStack roomItem(RoomSlot slot) {
+        Map<Integer, ItemStack> items = roomItems.get(slot.category());
+        if (items == null) return null;
+
+        ItemStack item = items.get(slot.slot());
+        return item == null ? null : item.clone();
+    }
+
+    /**
+     * @return The saved kits containing the term.
+     */
+    @NotNull
+    public static Set<KitKey> kits(String term) {
+        Set<KitKey> kits = kitIndex.get(normalize(term));
+        return kits == null ? Set.of() : Set.copyOf(kits);
+    }
+
+    /**
+     * @return Up to {@code limit} kit room terms starting with the given prefix, for tab completion.
+     */
+    @NotNull
+    public static List<String> roomTerms(String prefix, int limit) {
+        return prefixed(roomIndex, prefix, limit);
+    }
+
+    /**
+     * @return Up to {@code limit} saved kit terms starting with the given prefix, for tab completion.
+     */
+    @NotNull
+    public static List<String> kitTerms(String prefix, int limit) {
+        return prefixed(kitIndex, prefix, limit);
+    }
+
+    public static String normalize(String term) {
+        String normalized = term.toLowerCase(Locale.ROOT).trim().replace(' ', '_');
+
+        if (normalized.startsWith("minecraft:")) {
+            normalized = normalized.substring("minecraft:".length());
+        }
+
+        return normalized;
+    }
+
+    /**
+     * @return Every term an item can be found by. Shulker box contents are included.
+     */
+    @NotNull
+    public static Set<String> terms(ItemStack item) {
+        Set<String> terms = new HashSet<>();
+        collect(item, terms);
+        return terms;
+    }
+
+    private static void collect(ItemStack item, Set<String> terms) {
+        if (item == null || item.getType().isAir()) return;
+
+        Material type = item.getType();
+        terms.add(type.getKey().getKey());
+
+        for (Enchantment enchantment : item.getEnchantments().keySet()) {
+            terms.add(enchantment.getKey().getKey());
+        }
+
+        if (!item.hasItemMeta()) return;
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta instanceof EnchantmentStorageMeta storage) {
+            for (Enchantment enchantment : storage.getStoredEnchants().keySet()) {
+                terms.add(enchantment.getKey().getKey());
+            }
+        }
+
+        if (meta instanceof PotionMeta potion) {
+            PotionType potionType = potion.getBasePotionData().getType();
+            if (potionType.getEffectType() != null) {
+                terms.add(potionType.getEffectType().getKey().getKey());
+            }
+            terms.add(potionType.name().toLowerCase(Locale.ROOT));
+
+            for (PotionEffect effect : potion.getCustomEffects()) {
+                terms.add(effect.getType().getKey().getKey());
+            }
+        }
+
+        if (meta instanceof BlockStateMeta blockState && blockState.getBlockState() instanceof ShulkerBox shulker) {
+            for (ItemStack content : shulker.getInventory().getContents()) {
+                collect(content, terms);
+            }
+        }
+    }
+
+    private static <T> void removeWhere(Map<String, Set<T>> index, String term, Predicate<T> filter) {
+        index.computeIfPresent(term, (key, set) -> {
+            set.removeIf(filter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static List<String> prefixed(ConcurrentSkipListMap<String, ?> index, String prefix, int limit) {
+        String from = normalize(prefix);
+        List<String> list = new ArrayList<>();
+
+        for (String term : index.tailMap(from).keySet()) {
+            if (!term.startsWith(from) || list.size() >= limit) break;
+            list.add(term);
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,83 @@
+package dev.manere.velocitykits.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+/**
+ * A minimal timing harness: runs an operation for a number of warmup iterations,
+ * then times every measured iteration on its own.
+ */
+public class Benchmark {
+    /**
+     * @param name         What was measured.
+     * @param param        The parameter of this run, like the dataset size.
+     * @param opsPerSecond Throughput, for concurrent runs more than one over the mean.
+     */
+    public record Result(String name, String param, int ops, double meanMicros, double p50Micros, double p99Micros, double opsPerSecond) {
+
+    }
+
+    /**
+     * @param op Receives the iteration index, warmup iterations included.
+     */
+    public static Result run(String name, String param, int warmup, int iterations, IntConsumer op) {
+        for (int i = 0; i < warmup; i++) {
+            op.accept(i);
+        }
+
+        long[] nanos = new long[iterations];
+        long started = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            op.accept(warmup + i);
+            nanos[i] = System.nanoTime() - start;
+        }
+
+        return of(name, param, nanos, System.nanoTime() - started);
+    }
+
+    /**
+     * @param nanos   The latency of every operation.
+     * @param elapsed How long all operations took together, in nanoseconds.
+     */
+    public static Result of(String name, String param, long[] nanos, long elapsed) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+
+        double total = 0;
+        for (long time : sorted) {
+            total += time;
+        }
+
+        int ops = sorted.length;
+        return new Result(name, param, ops,
+                ops == 0 ? 0 : total / ops / 1000,
+                ops == 0 ? 0 : sorted[percentile(ops, 0.50)] / 1000.0,
+                ops == 0 ? 0 : sorted[percentile(ops, 0.99)] / 1000.0,
+                elapsed <= 0 ? 0 : ops * 1_000_000_000.0 / elapsed);
+    }
+
+    /**
+     * @return The results as CSV lines, the column header first.
+     */
+    public static List<String> csv(List<Result> results) {
+        List<String> lines = new ArrayList<>();
+        lines.add("benchmark,param,ops,mean_us,p50_us,p99_us,ops_per_sec");
+
+        for (Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.2f,%.2f,%.2f,%.1f",
+                    result.name(), result.param(), result.ops(),
+                    result.meanMicros(), result.p50Micros(), result.p99Micros(), result.opsPerSecond()));
+        }
+
+        return lines;
+    }
+
+    private static int percentile(int size, double percentile) {
+        return Math.min(size - 1, (int) Math.ceil(percentile * size) - 1);
+    }
+}
@@ -0,0 +1,177 @@
+package dev.manere.velocitykits.bench;
+
+import dev.manere.velocitykits.scheduler.StorageLanes;
+import dev.manere.velocitykits.storage.kit.KitStorage;
+import dev.manere.velocitykits.storage.kit.WriteResult;
+import dev.manere.velocitykits.storage.kit.YamlKitStorage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmarks of the storage backends and the storage lanes, which don't need a server.
+ * Only run with {@code mvn test -P benchmarks}, results are written as CSV to {@code target/benchmarks/}.
+ * {@code -Dvelocitykits.bench.iterations} sets the iterations, 1000 by default.
+ * <p>
+ * Only the YAML backend is measured. {@code MySQLKitStorage} schedules its lease polls on the server and logs through
+ * the plugin, so it can't be set up without a running server yet.
+ */
+@Tag("benchmark")
+class StorageBenchmarkTest {
+    private static final int[] DATASET_SIZES = {100, 1_000, 10_000};
+    private static final long[] ARTIFICIAL_LATENCIES_MILLIS = {1, 5, 20};
+    private static final int MAX_LANE_OPERATIONS = 2_000;
+
+    /* As many calls as the default pool of one database serves at once. */
+    private static final int MAX_CONCURRENT = 4;
+
+    /* About the stored size of a full PvP kit, the real kit needs the server's registries to encode. */
+    private static final int KIT_BYTES = 4096;
+
+    private static final int ITERATIONS = Integer.getInteger("velocitykits.bench.iterations", 1000);
+    private static final List<Benchmark.Result> results = Collections.synchronizedList(new ArrayList<>());
+
+    private static String syntheticUUID(int index) {
+        return new UUID(0xBE7C_0000_0000_0000L, index).toString();
+    }
+
+    private static String kit() {
+        byte[] bytes = new byte[KIT_BYTES];
+        new Random(42).nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static int warmup(int iterations) {
+        return Math.max(1, iterations / 5);
+    }
+
+    @Test
+    void yaml(@TempDir Path directory) {
+        YamlKitStorage yaml = new YamlKitStorage(directory.resolve("bench-kits.yml").toFile(), 1000);
+        yaml.setup();
+
+        try {
+            storage(yaml, "yaml");
+        } finally {
+            yaml.close();
+        }
+    }
+
+    /**
+     * Reads, writes and deletes at each dataset size. Everything written is deleted again.
+     */
+    private static void storage(KitStorage backend, String name) {
+        String data = kit();
+        int warmup = warmup(ITERATIONS);
+
+        for (int size : DATASET_SIZES) {
+            long[] versions = new long[size];
+
+            try {
+                for (int i = 0; i < size; i++) {
+                    versions[i] = backend.write(syntheticUUID(i), 1, data, backend.version(syntheticUUID(i), 1)).version();
+                }
+
+                String param = name + "/" + size;
+
+                results.add(Benchmark.run("storage.read", param, warmup, ITERATIONS,
+                        i -> backend.read(syntheticUUID(i % size), 1)));
+
+                results.add(Benchmark.run("storage.version", param, warmup, ITERATIONS,
+                        i -> backend.version(syntheticUUID(i % size), 1)));
+
+                results.add(Benchmark.run("storage.write", param, warmup, ITERATIONS, i -> {
+                    int index = i % size;
+                    WriteResult result = backend.write(syntheticUUID(index), 1, data, versions[index]);
+                    assertTrue(result.saved(), "benchmark write conflicted");
+                    versions[index] = result.version();
+                }));
+
+                // Every delete needs a kit of its own, so this is capped by the dataset.
+                int deletes = Math.min(size, warmup + ITERATIONS);
+                results.add(Benchmark.run("storage.delete", param, 0, deletes,
+                        i -> backend.delete(syntheticUUID(i), 1)));
+            } finally {
+                for (int i = 0; i < size; i++) {
+                    backend.delete(syntheticUUID(i), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Throughput of the storage lanes in each executor mode, with every call simulated as a database round trip
+     * of a fixed latency. The simulated database serves {@link #MAX_CONCURRENT} calls at once.
+     */
+    @Test
+    void lanes() throws InterruptedException {
+        int operations = Math.min(ITERATIONS, MAX_LANE_OPERATIONS);
+
+        for (StorageLanes.Mode mode : StorageLanes.Mode.values()) {
+            if (mode == StorageLanes.Mode.VIRTUAL && !StorageLanes.virtualThreadsSupported()) continue;
+
+            for (long latency : ARTIFICIAL_LATENCIES_MILLIS) {
+                List<ExecutorService> lanes = StorageLanes.create(0, mode, MAX_CONCURRENT);
+                Semaphore database = new Semaphore(MAX_CONCURRENT);
+                CountDownLatch done = new CountDownLatch(operations);
+                long[] nanos = new long[operations];
+                long started = System.nanoTime();
+
+                for (int i = 0; i < operations; i++) {
+                    int operation = i;
+                    long submitted = System.nanoTime();
+                    String playerUUID = syntheticUUID(i);
+
+                    lanes.get(Math.floorMod(playerUUID.hashCode(), lanes.size())).execute(() -> {
+                        database.acquireUninterruptibly();
+
+                        try {
+                            Thread.sleep(latency);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            database.release();
+                        }
+
+                        nanos[operation] = System.nanoTime() - submitted;
+                        done.countDown();
+                    });
+                }
+
+                done.await();
+                results.add(Benchmark.of("lanes." + mode.name().toLowerCase(),
+                        lanes.size() + "-lanes/" + MAX_CONCURRENT + "-db/" + latency + "ms", nanos, System.nanoTime() - started));
+
+                lanes.forEach(ExecutorService::shutdown);
+            }
+        }
+    }
+
+    @AfterAll
+    static void write() throws IOException {
+        Path directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+
+        Path file = directory.resolve("bench-storage-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# VelocityKits storage, Java " + System.getProperty("java.version") + ", " + ITERATIONS + " iterations");
+        lines.addAll(Benchmark.csv(results));
+
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        lines.forEach(System.out::println);
+    }
+}
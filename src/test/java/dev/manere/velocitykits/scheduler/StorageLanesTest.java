@@ -0,0 +1,139 @@
+package dev.manere.velocitykits.scheduler;
+
+import dev.manere.velocitykits.storage.kit.MemoryKitStorage;
+import dev.manere.velocitykits.storage.kit.StoredKit;
+import dev.manere.velocitykits.storage.kit.WriteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the lanes from many threads at once and checks that no save is lost and no load sees an older kit
+ * than the last save submitted before it for the same player.
+ */
+class StorageLanesTest {
+    private static final int PLAYERS = 64;
+    private static final int SUBMITTERS = 16;
+    private static final int OPERATIONS = 20_000;
+
+    private final List<ExecutorService> lanes = StorageLanes.create(4, StorageLanes.Mode.PLATFORM, 4);
+
+    @AfterEach
+    void shutdown() {
+        lanes.forEach(ExecutorService::shutdownNow);
+    }
+
+    private Executor lane(String playerUUID) {
+        return StorageLanes.lane(lanes, playerUUID);
+    }
+
+    /* Submission order of one player is fixed under its lock, which is the order its operations must run in. */
+    private static final class Player {
+        private final String uuid = UUID.randomUUID().toString();
+        private long lastSave;
+        private long saves;
+    }
+
+    @Test
+    void savesThenLoadsRunInOrderPerPlayer() throws Exception {
+        MemoryKitStorage storage = new MemoryKitStorage();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) players.add(new Player());
+
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicLong conflicts = new AtomicLong();
+        List<CompletableFuture<?>> pending = new CopyOnWriteArrayList<>();
+
+        ExecutorService submitters = Executors.newFixedThreadPool(SUBMITTERS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int s = 0; s < SUBMITTERS; s++) {
+            submitters.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < OPERATIONS / SUBMITTERS; i++) {
+                    Player player = players.get(random.nextInt(PLAYERS));
+
+                    synchronized (player) {
+                        if (random.nextBoolean()) {
+                            long value = ++player.lastSave;
+                            player.saves++;
+
+                            pending.add(CompletableFuture.runAsync(() -> {
+                                WriteResult result = storage.write(player.uuid, 1, String.valueOf(value), storage.version(player.uuid, 1));
+                                if (!result.saved()) conflicts.incrementAndGet();
+                            }, lane(player.uuid)));
+                        } else {
+                            long expected = player.lastSave;
+
+                            pending.add(CompletableFuture.runAsync(() -> {
+                                StoredKit stored = storage.read(player.uuid, 1);
+                                long seen = stored == null ? 0 : Long.parseLong(stored.data());
+
+                                if (seen != expected) {
+                                    failures.add(player.uuid + " loaded " + seen + " after saving " + expected);
+                                }
+                            }, lane(player.uuid)));
+                        }
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        submitters.shutdown();
+        assertTrue(submitters.awaitTermination(1, TimeUnit.MINUTES));
+
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " stale loads, e.g. " + failures.peek());
+        assertEquals(0, conflicts.get(), "saves of one player overlapped");
+
+        for (Player player : players) {
+            StoredKit stored = storage.read(player.uuid, 1);
+
+            if (player.saves == 0) {
+                assertNull(stored);
+                continue;
+            }
+
+            assertNotNull(stored);
+            assertEquals(String.valueOf(player.lastSave), stored.data(), "a save was lost");
+            assertEquals(player.saves, stored.version(), "a save was lost");
+        }
+    }
+
+    @Test
+    void playerAlwaysMapsToTheSameLane() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+
+            // Callers build the string anew every time, the lane may only depend on its value.
+            assertSame(StorageLanes.lane(lanes, uuid.toString()), StorageLanes.lane(lanes, new UUID(uuid.getMostSignificantBits(),
+                    uuid.getLeastSignificantBits()).toString()));
+        }
+    }
+
+    @Test
+    void playersSpreadOverEveryLane() {
+        Map<ExecutorService, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 4000; i++) {
+            counts.merge(StorageLanes.lane(lanes, UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+
+        assertEquals(lanes.size(), counts.size(), "a lane got no players");
+        counts.values().forEach(count -> assertEquals(1000, count, 200));
+    }
+}
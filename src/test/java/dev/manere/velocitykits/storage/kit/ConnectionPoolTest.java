@@ -0,0 +1,146 @@
+package dev.manere.velocitykits.storage.kit;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    /* A connection that only answers isValid and close. */
+    private static final class FakeConnection {
+        private volatile boolean valid = true;
+        private volatile boolean closed;
+
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (self, method, args) -> switch (method.getName()) {
+                    case "isValid" -> valid && !closed;
+                    case "isClosed" -> closed;
+                    case "close" -> {
+                        closed = true;
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private final List<FakeConnection> opened = new CopyOnWriteArrayList<>();
+
+    private ConnectionPool pool(int size) {
+        return new ConnectionPool("test", () -> {
+            FakeConnection connection = new FakeConnection();
+            opened.add(connection);
+            return connection.proxy;
+        }, size);
+    }
+
+    @Test
+    void reusesIdleConnections() {
+        ConnectionPool pool = pool(4);
+
+        Connection first = pool.with(connection -> connection);
+        Connection second = pool.with(connection -> connection);
+
+        assertSame(first, second);
+        assertEquals(1, opened.size());
+    }
+
+    @Test
+    void neverOpensMoreThanItsSize() throws Exception {
+        ConnectionPool pool = pool(3);
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            futures.add(threads.submit(() -> pool.with(connection -> {
+                maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                Thread.yield();
+                inUse.decrementAndGet();
+                return null;
+            })));
+        }
+
+        for (Future<?> future : futures) future.get(1, TimeUnit.MINUTES);
+        threads.shutdown();
+
+        assertTrue(opened.size() <= 3, () -> opened.size() + " connections opened");
+        assertTrue(maxInUse.get() <= 3, () -> maxInUse.get() + " connections used at once");
+    }
+
+    @Test
+    void wrapsSQLExceptions() {
+        ConnectionPool pool = pool(1);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> pool.with(connection -> {
+            throw new SQLException("boom");
+        }));
+
+        assertInstanceOf(SQLException.class, thrown.getCause());
+    }
+
+    @Test
+    void keepsAValidConnectionAfterAFailedQuery() {
+        ConnectionPool pool = pool(1);
+
+        assertThrows(RuntimeException.class, () -> pool.with(connection -> {
+            throw new SQLException("constraint violated");
+        }));
+
+        pool.with(connection -> null);
+
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    void replacesABrokenConnection() {
+        ConnectionPool pool = pool(1);
+
+        assertThrows(RuntimeException.class, () -> pool.with(connection -> {
+            opened.get(0).valid = false;
+            throw new SQLException("connection reset");
+        }));
+
+        assertTrue(opened.get(0).closed);
+
+        // The broken connection no longer counts against the size, or this would time out.
+        Connection replacement = pool.with(connection -> connection);
+
+        assertEquals(2, opened.size());
+        assertSame(opened.get(1).proxy, replacement);
+    }
+
+    @Test
+    void closeClosesIdleConnectionsAndRefusesBorrows() {
+        ConnectionPool pool = pool(2);
+        pool.with(connection -> null);
+
+        pool.close();
+
+        assertTrue(opened.get(0).closed);
+        assertThrows(IllegalStateException.class, () -> pool.with(connection -> null));
+    }
+
+    @Test
+    void aFailedOpenFreesItsSlot() {
+        AtomicInteger attempts = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool("test", () -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("database down");
+            return new FakeConnection().proxy;
+        }, 1);
+
+        assertThrows(IllegalStateException.class, () -> pool.with(connection -> null));
+        assertNotNull(pool.with(connection -> connection));
+    }
+}
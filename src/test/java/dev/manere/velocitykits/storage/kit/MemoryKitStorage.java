@@ -0,0 +1,113 @@
+package dev.manere.velocitykits.storage.kit;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory {@link KitStorage} for tests.
+ * <p>
+ * The compare-and-set of {@link #write} is deliberately not atomic, like a backend without transactions,
+ * so only the storage lanes keep writes of one player from racing each other.
+ */
+public class MemoryKitStorage implements KitStorage {
+    private final Map<String, StoredKit> kits = new ConcurrentHashMap<>();
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<Long, Revision>> revisions = new ConcurrentHashMap<>();
+
+    @Override
+    public void setup() {
+
+    }
+
+    @Override
+    public StoredKit read(String playerUUID, int kitNumber) {
+        return kits.get(key(playerUUID, kitNumber));
+    }
+
+    @Override
+    public WriteResult write(String playerUUID, int kitNumber, String data, long expectedVersion) {
+        long current = version(playerUUID, kitNumber);
+        if (current != expectedVersion) return WriteResult.conflict(current);
+
+        // Widens the window between the check and the write.
+        Thread.yield();
+
+        long version = current + 1;
+        kits.put(key(playerUUID, kitNumber), new StoredKit(data, version));
+        return WriteResult.saved(version);
+    }
+
+    @Override
+    public void delete(String playerUUID, int kitNumber) {
+        kits.remove(key(playerUUID, kitNumber));
+    }
+
+    @Override
+    public long version(String playerUUID, int kitNumber) {
+        StoredKit stored = read(playerUUID, kitNumber);
+        return stored == null ? 0 : stored.version();
+    }
+
+    @Override
+    public Map<Integer, Long> versions(String playerUUID) {
+        Map<Integer, Long> versions = new TreeMap<>();
+        kits.forEach((key, stored) -> {
+            if (key.startsWith(playerUUID + ":")) {
+                versions.put(Integer.parseInt(key.substring(playerUUID.length() + 1)), stored.version());
+            }
+        });
+        return versions;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        kits.forEach((key, stored) -> {
+            int separator = key.lastIndexOf(':');
+            visitor.accept(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)), stored.data());
+        });
+    }
+
+    @Override
+    public void forEachName(NameVisitor visitor) {
+        names.forEach(visitor::accept);
+    }
+
+    @Override
+    public Optional<String> uuid(String name) {
+        return names.entrySet().stream()
+                .filter(entry -> name.equalsIgnoreCase(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    @Override
+    public void saveName(String playerUUID, String name) {
+        names.put(playerUUID, name);
+    }
+
+    @Override
+    public void writeRevision(String playerUUID, int kitNumber, Revision revision) {
+        revisions.computeIfAbsent(key(playerUUID, kitNumber), key -> new ConcurrentSkipListMap<>()).put(revision.id(), revision);
+    }
+
+    @Override
+    public List<Revision> revisions(String playerUUID, int kitNumber) {
+        return new ArrayList<>(revisions.getOrDefault(key(playerUUID, kitNumber), new TreeMap<>()).values());
+    }
+
+    @Override
+    public void deleteRevisions(String playerUUID, int kitNumber, long id) {
+        NavigableMap<Long, Revision> kit = revisions.get(key(playerUUID, kitNumber));
+        if (kit != null) kit.headMap(id, false).clear();
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    private static String key(String playerUUID, int kitNumber) {
+        return playerUUID + ":" + kitNumber;
+    }
+}
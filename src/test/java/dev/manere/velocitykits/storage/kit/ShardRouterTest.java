@@ -0,0 +1,76 @@
+package dev.manere.velocitykits.storage.kit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+    private static final int PLAYERS = 100_000;
+
+    private static final List<String> uuids = new ArrayList<>();
+
+    static {
+        Random random = new Random(42);
+        for (int i = 0; i < PLAYERS; i++) uuids.add(new UUID(random.nextLong(), random.nextLong()).toString());
+    }
+
+    private static ShardRouter<String> router(String... names) {
+        Map<String, String> shards = new LinkedHashMap<>();
+        for (String name : names) shards.put(name, name);
+        return new ShardRouter<>(shards);
+    }
+
+    @Test
+    void spreadsPlayersEvenly() {
+        ShardRouter<String> router = router("a", "b", "c", "d");
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (String uuid : uuids) counts.merge(router.route(uuid), 1, Integer::sum);
+
+        double mean = PLAYERS / 4.0;
+        counts.forEach((shard, count) ->
+                assertEquals(mean, count, mean * 0.15, () -> shard + " got " + count + " of " + PLAYERS + " players"));
+    }
+
+    @Test
+    void addingAShardOnlyMovesPlayersOntoIt() {
+        ShardRouter<String> before = router("a", "b", "c", "d");
+        ShardRouter<String> after = router("a", "b", "c", "d", "e");
+        int moved = 0;
+
+        for (String uuid : uuids) {
+            String from = before.route(uuid);
+            String to = after.route(uuid);
+            if (from.equals(to)) continue;
+
+            assertEquals("e", to, () -> uuid + " moved from " + from + " to " + to);
+            moved++;
+        }
+
+        // A fifth of the players should move, not a reshuffle of everyone.
+        assertEquals(PLAYERS / 5.0, moved, PLAYERS * 0.05);
+    }
+
+    @Test
+    void placementDoesNotDependOnConfigOrder() {
+        ShardRouter<String> forward = router("a", "b", "c");
+        ShardRouter<String> reversed = router("c", "b", "a");
+
+        for (String uuid : uuids.subList(0, 1000)) {
+            assertEquals(forward.route(uuid), reversed.route(uuid));
+        }
+    }
+
+    @Test
+    void hashIsStable() {
+        // Routing must agree across servers and restarts, so the hash may never change.
+        assertEquals(-1647738829477377587L, ShardRouter.hash("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+    }
+
+    @Test
+    void rejectsNoShards() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter<>(Map.of()));
+    }
+}